@@ -0,0 +1,91 @@
+package com.ashideas.rnrangeslider;
+
+import android.app.Application;
+import android.content.ComponentCallbacks2;
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.os.SystemClock;
+import android.view.MotionEvent;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks what {@link RangeSlider#getCacheSizes()} reports after each memory trim level.
+ * Levels are dispatched through the application, like the system does.
+ */
+@RunWith(AndroidJUnit4.class)
+public class CacheTrimTest {
+
+    private static final String LABEL_LAYOUTS = "labelLayouts";
+    private static final String TICKS = "ticks";
+
+    @Test
+    public void trimLevels() {
+        final List<Map<String, Integer>> sizes = new ArrayList<>();
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                collectSizes(InstrumentationRegistry.getInstrumentation().getTargetContext(), sizes);
+            }
+        });
+
+        Map<String, Integer> filled = sizes.get(0);
+        // 16 values on both sides of the touched one
+        assertEquals(filled.toString(), 33, (int) filled.get(LABEL_LAYOUTS));
+        int ticks = filled.get(TICKS);
+        assertTrue(filled.toString(), ticks > 0);
+
+        Map<String, Integer> moderate = sizes.get(1);
+        assertEquals(moderate.toString(), 33, (int) moderate.get(LABEL_LAYOUTS));
+        assertEquals(moderate.toString(), ticks, (int) moderate.get(TICKS));
+
+        Map<String, Integer> low = sizes.get(2);
+        assertEquals(low.toString(), 16, (int) low.get(LABEL_LAYOUTS));
+        assertEquals(low.toString(), ticks, (int) low.get(TICKS));
+
+        Map<String, Integer> critical = sizes.get(3);
+        assertEquals(critical.toString(), 0, (int) critical.get(LABEL_LAYOUTS));
+        assertEquals(critical.toString(), 0, (int) critical.get(TICKS));
+    }
+
+    /**
+     * @param sizes receives cache sizes after filling caches and after each trim level
+     */
+    private static void collectSizes(Context context, List<Map<String, Integer>> sizes) {
+        CacheRegistry.register(context);
+        Application application = (Application) context.getApplicationContext();
+        RangeSlider slider = TestSliders.create(context);
+        slider.setTicksEnabled(true);
+        TestSliders.layout(slider);
+        Bitmap bitmap = Bitmap.createBitmap(slider.getWidth(), slider.getHeight(), Bitmap.Config.ARGB_8888);
+        try {
+            long time = SystemClock.uptimeMillis();
+            TestSliders.touch(slider, time, time, MotionEvent.ACTION_DOWN,
+                    slider.getPositionForValue(slider.getLowValue()), slider.getThumbTouchY());
+            TestSliders.drawFrame(slider, new Canvas(bitmap));
+            sizes.add(RangeSlider.getCacheSizes());
+
+            application.onTrimMemory(ComponentCallbacks2.TRIM_MEMORY_RUNNING_MODERATE);
+            sizes.add(RangeSlider.getCacheSizes());
+            application.onTrimMemory(ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW);
+            sizes.add(RangeSlider.getCacheSizes());
+            application.onTrimMemory(ComponentCallbacks2.TRIM_MEMORY_RUNNING_CRITICAL);
+            sizes.add(RangeSlider.getCacheSizes());
+        } finally {
+            bitmap.recycle();
+            slider.release();
+        }
+    }
+}
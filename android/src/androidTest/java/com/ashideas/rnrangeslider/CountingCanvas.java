@@ -0,0 +1,303 @@
+package com.ashideas.rnrangeslider;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Matrix;
+import android.graphics.Paint;
+import android.graphics.Path;
+import android.graphics.Picture;
+import android.graphics.PorterDuff;
+import android.graphics.Rect;
+import android.graphics.RectF;
+
+/**
+ * Canvas which counts draw operations instead of drawing.
+ * State operations (save, restore, transformations, clips) go to the backing bitmap canvas,
+ * so drawing code which depends on clip bounds (e.g. text layouts) behaves as usual.
+ *
+ * Every draw method of the compile SDK is counted. Draw methods added in later versions aren't overridden
+ * and reach the bitmap, so {@link #hasUncountedDraws()} reports them.
+ */
+class CountingCanvas extends Canvas {
+
+    private final Bitmap bitmap;
+    private int drawCalls;
+    private int pathDraws;
+    private int textDraws;
+
+    CountingCanvas(Bitmap bitmap) {
+        super(bitmap);
+        this.bitmap = bitmap;
+        bitmap.eraseColor(Color.TRANSPARENT);
+    }
+
+    void resetCounts() {
+        drawCalls = 0;
+        pathDraws = 0;
+        textDraws = 0;
+        bitmap.eraseColor(Color.TRANSPARENT);
+    }
+
+    int getDrawCalls() {
+        return drawCalls;
+    }
+
+    int getPathDraws() {
+        return pathDraws;
+    }
+
+    int getTextDraws() {
+        return textDraws;
+    }
+
+    /**
+     * @return true if anything was drawn into the bitmap since the last reset, i.e. by a draw method which isn't counted
+     */
+    boolean hasUncountedDraws() {
+        int width = bitmap.getWidth();
+        int[] row = new int[width];
+        for (int y = 0; y < bitmap.getHeight(); y++) {
+            bitmap.getPixels(row, 0, width, 0, y, width, 1);
+            for (int pixel : row) {
+                if (pixel != Color.TRANSPARENT) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void drawARGB(int a, int r, int g, int b) {
+        drawCalls++;
+    }
+
+    @Override
+    public void drawRGB(int r, int g, int b) {
+        drawCalls++;
+    }
+
+    @Override
+    public void drawColor(int color) {
+        drawCalls++;
+    }
+
+    @Override
+    public void drawColor(int color, PorterDuff.Mode mode) {
+        drawCalls++;
+    }
+
+    @Override
+    public void drawPaint(Paint paint) {
+        drawCalls++;
+    }
+
+    @Override
+    public void drawPoint(float x, float y, Paint paint) {
+        drawCalls++;
+    }
+
+    @Override
+    public void drawPoints(float[] pts, int offset, int count, Paint paint) {
+        drawCalls++;
+    }
+
+    @Override
+    public void drawPoints(float[] pts, Paint paint) {
+        drawCalls++;
+    }
+
+    @Override
+    public void drawLine(float startX, float startY, float stopX, float stopY, Paint paint) {
+        drawCalls++;
+    }
+
+    @Override
+    public void drawLines(float[] pts, int offset, int count, Paint paint) {
+        drawCalls++;
+    }
+
+    @Override
+    public void drawLines(float[] pts, Paint paint) {
+        drawCalls++;
+    }
+
+    @Override
+    public void drawRect(RectF rect, Paint paint) {
+        drawCalls++;
+    }
+
+    @Override
+    public void drawRect(Rect r, Paint paint) {
+        drawCalls++;
+    }
+
+    @Override
+    public void drawRect(float left, float top, float right, float bottom, Paint paint) {
+        drawCalls++;
+    }
+
+    @Override
+    public void drawRoundRect(RectF rect, float rx, float ry, Paint paint) {
+        drawCalls++;
+    }
+
+    @Override
+    public void drawRoundRect(float left, float top, float right, float bottom, float rx, float ry, Paint paint) {
+        drawCalls++;
+    }
+
+    @Override
+    public void drawOval(RectF oval, Paint paint) {
+        drawCalls++;
+    }
+
+    @Override
+    public void drawOval(float left, float top, float right, float bottom, Paint paint) {
+        drawCalls++;
+    }
+
+    @Override
+    public void drawCircle(float cx, float cy, float radius, Paint paint) {
+        drawCalls++;
+    }
+
+    @Override
+    public void drawArc(RectF oval, float startAngle, float sweepAngle, boolean useCenter, Paint paint) {
+        drawCalls++;
+    }
+
+    @Override
+    public void drawArc(float left, float top, float right, float bottom, float startAngle, float sweepAngle,
+                        boolean useCenter, Paint paint) {
+        drawCalls++;
+    }
+
+    @Override
+    public void drawPath(Path path, Paint paint) {
+        drawCalls++;
+        pathDraws++;
+    }
+
+    @Override
+    public void drawBitmap(Bitmap bitmap, float left, float top, Paint paint) {
+        drawCalls++;
+    }
+
+    @Override
+    public void drawBitmap(Bitmap bitmap, Rect src, RectF dst, Paint paint) {
+        drawCalls++;
+    }
+
+    @Override
+    public void drawBitmap(Bitmap bitmap, Rect src, Rect dst, Paint paint) {
+        drawCalls++;
+    }
+
+    @Override
+    public void drawBitmap(Bitmap bitmap, Matrix matrix, Paint paint) {
+        drawCalls++;
+    }
+
+    @Override
+    @SuppressWarnings("deprecation")
+    public void drawBitmap(int[] colors, int offset, int stride, float x, float y, int width, int height,
+                           boolean hasAlpha, Paint paint) {
+        drawCalls++;
+    }
+
+    @Override
+    @SuppressWarnings("deprecation")
+    public void drawBitmap(int[] colors, int offset, int stride, int x, int y, int width, int height,
+                           boolean hasAlpha, Paint paint) {
+        drawCalls++;
+    }
+
+    @Override
+    public void drawBitmapMesh(Bitmap bitmap, int meshWidth, int meshHeight, float[] verts, int vertOffset,
+                               int[] colors, int colorOffset, Paint paint) {
+        drawCalls++;
+    }
+
+    @Override
+    public void drawVertices(VertexMode mode, int vertexCount, float[] verts, int vertOffset, float[] texs,
+                             int texOffset, int[] colors, int colorOffset, short[] indices, int indexOffset,
+                             int indexCount, Paint paint) {
+        drawCalls++;
+    }
+
+    @Override
+    public void drawPicture(Picture picture) {
+        drawCalls++;
+    }
+
+    @Override
+    public void drawPicture(Picture picture, RectF dst) {
+        drawCalls++;
+    }
+
+    @Override
+    public void drawPicture(Picture picture, Rect dst) {
+        drawCalls++;
+    }
+
+    @Override
+    public void drawText(String text, float x, float y, Paint paint) {
+        countText();
+    }
+
+    @Override
+    public void drawText(String text, int start, int end, float x, float y, Paint paint) {
+        countText();
+    }
+
+    @Override
+    public void drawText(char[] text, int index, int count, float x, float y, Paint paint) {
+        countText();
+    }
+
+    @Override
+    public void drawText(CharSequence text, int start, int end, float x, float y, Paint paint) {
+        countText();
+    }
+
+    @Override
+    public void drawTextRun(char[] text, int index, int count, int contextIndex, int contextCount,
+                            float x, float y, boolean isRtl, Paint paint) {
+        countText();
+    }
+
+    @Override
+    public void drawTextRun(CharSequence text, int start, int end, int contextStart, int contextEnd,
+                            float x, float y, boolean isRtl, Paint paint) {
+        countText();
+    }
+
+    @Override
+    @SuppressWarnings("deprecation")
+    public void drawPosText(char[] text, int index, int count, float[] pos, Paint paint) {
+        countText();
+    }
+
+    @Override
+    @SuppressWarnings("deprecation")
+    public void drawPosText(String text, float[] pos, Paint paint) {
+        countText();
+    }
+
+    @Override
+    public void drawTextOnPath(char[] text, int index, int count, Path path, float hOffset, float vOffset, Paint paint) {
+        countText();
+    }
+
+    @Override
+    public void drawTextOnPath(String text, Path path, float hOffset, float vOffset, Paint paint) {
+        countText();
+    }
+
+    private void countText() {
+        drawCalls++;
+        textDraws++;
+    }
+}
@@ -0,0 +1,125 @@
+package com.ashideas.rnrangeslider;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.os.Debug;
+import android.os.SystemClock;
+import android.view.MotionEvent;
+
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Locale;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Per-frame draw cost budgets of {@link RangeSlider#onDraw} for every style combination.
+ *
+ * A frame is drawn right after the low thumb was dragged to a new value, so the label is shown if label style allows it.
+ * If a change makes drawing more expensive on purpose, update the table below in the same change.
+ *
+ * Allocations are counted with {@link Debug#getThreadAllocCount()}, which only works on a device or an emulator
+ * (under Robolectric it always returns 0), so the allocation budget is meaningful only in this instrumented test.
+ */
+@RunWith(Parameterized.class)
+public class DrawBudgetTest {
+
+    @Parameterized.Parameters(name = "labelStyle={0} rangeEnabled={1} gravity={2}")
+    public static Collection<Object[]> budgets() {
+        return Arrays.asList(new Object[][]{
+                // labelStyle                    rangeEnabled  gravity                     calls paths allocations
+                {RangeSlider.LabelStyle.NONE,   false, RangeSlider.Gravity.TOP,    6,  2,  0},
+                {RangeSlider.LabelStyle.NONE,   false, RangeSlider.Gravity.CENTER, 6,  2,  0},
+                {RangeSlider.LabelStyle.NONE,   false, RangeSlider.Gravity.BOTTOM, 6,  2,  0},
+                {RangeSlider.LabelStyle.NONE,   true,  RangeSlider.Gravity.TOP,    14, 4,  0},
+                {RangeSlider.LabelStyle.NONE,   true,  RangeSlider.Gravity.CENTER, 14, 4,  0},
+                {RangeSlider.LabelStyle.NONE,   true,  RangeSlider.Gravity.BOTTOM, 14, 4,  0},
+                {RangeSlider.LabelStyle.BUBBLE, false, RangeSlider.Gravity.TOP,    9,  4,  0},
+                {RangeSlider.LabelStyle.BUBBLE, false, RangeSlider.Gravity.CENTER, 9,  4,  0},
+                {RangeSlider.LabelStyle.BUBBLE, false, RangeSlider.Gravity.BOTTOM, 9,  4,  0},
+                {RangeSlider.LabelStyle.BUBBLE, true,  RangeSlider.Gravity.TOP,    17, 6,  0},
+                {RangeSlider.LabelStyle.BUBBLE, true,  RangeSlider.Gravity.CENTER, 17, 6,  0},
+                {RangeSlider.LabelStyle.BUBBLE, true,  RangeSlider.Gravity.BOTTOM, 17, 6,  0},
+        });
+    }
+
+    private final RangeSlider.LabelStyle labelStyle;
+    private final boolean rangeEnabled;
+    private final RangeSlider.Gravity gravity;
+    private final int drawCallBudget;
+    private final int pathDrawBudget;
+    private final int allocationBudget;
+
+    public DrawBudgetTest(RangeSlider.LabelStyle labelStyle, boolean rangeEnabled, RangeSlider.Gravity gravity,
+                          int drawCallBudget, int pathDrawBudget, int allocationBudget) {
+        this.labelStyle = labelStyle;
+        this.rangeEnabled = rangeEnabled;
+        this.gravity = gravity;
+        this.drawCallBudget = drawCallBudget;
+        this.pathDrawBudget = pathDrawBudget;
+        this.allocationBudget = allocationBudget;
+    }
+
+    @Test
+    public void frameIsWithinBudget() {
+        final long[] cost = new long[5];
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                measure(InstrumentationRegistry.getInstrumentation().getTargetContext(), cost);
+            }
+        });
+        String message = String.format(Locale.US, "calls=%d paths=%d allocations=%d", cost[0], cost[1], cost[2]);
+        assertEquals(30, cost[4]);
+        assertEquals("Draws which CountingCanvas didn't count", 0, cost[3]);
+        assertTrue(message, cost[0] <= drawCallBudget);
+        assertTrue(message, cost[1] <= pathDrawBudget);
+        assertTrue(message, cost[2] <= allocationBudget);
+    }
+
+    /**
+     * Measures the frame which follows a move of the low thumb by ten steps.
+     *
+     * @param cost receives draw calls, path draws, allocations, 1 if anything was drawn without being counted
+     *             and the low value after the move
+     */
+    @SuppressWarnings("deprecation")
+    private void measure(Context context, long[] cost) {
+        RangeSlider slider = TestSliders.create(context, labelStyle, rangeEnabled, gravity);
+        TestSliders.layout(slider);
+        Bitmap bitmap = Bitmap.createBitmap(slider.getWidth(), slider.getHeight(), Bitmap.Config.ARGB_8888);
+        try {
+            CountingCanvas canvas = new CountingCanvas(bitmap);
+            float y = slider.getThumbTouchY();
+            long time = SystemClock.uptimeMillis();
+            TestSliders.touch(slider, time, time, MotionEvent.ACTION_DOWN, slider.getPositionForValue(slider.getLowValue()), y);
+            // The first frame of the touch fills caches
+            TestSliders.drawFrame(slider, canvas);
+
+            // Between values, so rounding can't snap the thumb to a neighbour
+            float x = (slider.getPositionForValue(30) + slider.getPositionForValue(31)) / 2;
+            TestSliders.touch(slider, time, time + 16, MotionEvent.ACTION_MOVE, x, y);
+            cost[4] = slider.getLowValue();
+            canvas.resetCounts();
+            Debug.startAllocCounting();
+            Debug.resetThreadAllocCount();
+            TestSliders.drawFrame(slider, canvas);
+            cost[2] = Debug.getThreadAllocCount();
+            Debug.stopAllocCounting();
+
+            cost[0] = canvas.getDrawCalls();
+            cost[1] = canvas.getPathDraws();
+            cost[3] = canvas.hasUncountedDraws() ? 1 : 0;
+        } finally {
+            bitmap.recycle();
+            slider.release();
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.ashideas.rnrangeslider;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.view.MotionEvent;
+
+/**
+ * Slider configuration and frame helpers shared by instrumented tests.
+ * Traces in {@code assets/traces} are made for {@link #create(Context)} laid out at {@link #WIDTH_DP}x{@link #HEIGHT_DP}dp.
+ */
+class TestSliders {
+
+    static final int WIDTH_DP = 300;
+    static final int HEIGHT_DP = 100;
+
+    /**
+     * @return a slider from 0 to 100 with values 20 and 80, bubble label, range enabled and top gravity
+     */
+    static RangeSlider create(Context context) {
+        return create(context, RangeSlider.LabelStyle.BUBBLE, true, RangeSlider.Gravity.TOP);
+    }
+
+    static RangeSlider create(Context context, RangeSlider.LabelStyle labelStyle, boolean rangeEnabled,
+                              RangeSlider.Gravity gravity) {
+        RangeSlider slider = new RangeSlider(context);
+        slider.setSynchronousLabelLayout(true);
+        slider.setValueType("number");
+        slider.setTextFormat("%d");
+        slider.setLabelStyle(labelStyle.name());
+        slider.setGravity(gravity.name());
+        slider.setRangeEnabled(rangeEnabled);
+        slider.setLineWidth(4);
+        slider.setThumbRadius(10);
+        slider.setThumbBorderWidth(2);
+        slider.setTextSize(16);
+        slider.setLabelBorderWidth(2);
+        slider.setLabelPadding(4);
+        slider.setLabelBorderRadius(4);
+        slider.setLabelTailHeight(8);
+        slider.setLabelGapHeight(4);
+        slider.setMinValue(0L);
+        slider.setMaxValue(100L);
+        slider.setLowValue(20L);
+        slider.setHighValue(80L);
+        return slider;
+    }
+
+    /**
+     * Lays the slider out at {@link #WIDTH_DP}x{@link #HEIGHT_DP}dp.
+     */
+    static void layout(RangeSlider slider) {
+        Context context = slider.getContext();
+        slider.layout(0, 0, (int) Utils.dpToPx(context, WIDTH_DP), (int) Utils.dpToPx(context, HEIGHT_DP));
+    }
+
+    /**
+     * Sends a single pointer event to the slider.
+     */
+    static void touch(RangeSlider slider, long downTime, long eventTime, int action, float x, float y) {
+        MotionEvent event = MotionEvent.obtain(downTime, eventTime, action, x, y, 0);
+        slider.onTouchEvent(event);
+        event.recycle();
+    }
+
+    /**
+     * Draws one frame the way the framework does.
+     */
+    static void drawFrame(RangeSlider slider, Canvas canvas) {
+        // onDraw translates the canvas, the framework restores it after every frame
+        int saveCount = canvas.save();
+        slider.onDraw(canvas);
+        canvas.restoreToCount(saveCount);
+    }
+}
@@ -0,0 +1,247 @@
+package com.ashideas.rnrangeslider;
+
+import android.view.MotionEvent;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A recorded stream of touch events which can be replayed against a {@link RangeSlider}.
+ * Coordinates are kept in pixels of the recording device together with its density,
+ * so a trace can be replayed on a device with a different density.
+ *
+ * Binary format (big endian):
+ * <pre>
+ * int   magic ('RSTT')
+ * short version
+ * float density
+ * int   viewWidth, viewHeight
+ * int   eventCount
+ * for each event:
+ *     byte  actionMasked
+ *     byte  actionIndex
+ *     byte  pointerCount
+ *     byte  pointerId       x pointerCount
+ *     short sampleCount     (historical samples + the current one)
+ *     for each sample:
+ *         int   time        (millis since the first ACTION_DOWN)
+ *         float x, y        x pointerCount
+ * </pre>
+ */
+class TouchTrace {
+
+    private static final int MAGIC = 0x52535454;
+    private static final short VERSION = 1;
+
+    private final float density;
+    private final int viewWidth;
+    private final int viewHeight;
+    private final List<Event> events;
+
+    private TouchTrace(float density, int viewWidth, int viewHeight, List<Event> events) {
+        this.density = density;
+        this.viewWidth = viewWidth;
+        this.viewHeight = viewHeight;
+        this.events = events;
+    }
+
+    /**
+     * @return display density of the device the trace was recorded on
+     */
+    public float getDensity() {
+        return density;
+    }
+
+    public int getViewWidth() {
+        return viewWidth;
+    }
+
+    public int getViewHeight() {
+        return viewHeight;
+    }
+
+    public int getEventCount() {
+        return events.size();
+    }
+
+    /**
+     * Creates a {@link MotionEvent} for the event at given index, including historical samples.
+     * Caller is responsible for recycling it.
+     *
+     * @param index index of the event
+     * @param downTime time which will be used as the time of the first ACTION_DOWN
+     * @param scale factor applied to coordinates, e.g. target density divided by {@link #getDensity()}
+     */
+    public MotionEvent obtainEvent(int index, long downTime, float scale) {
+        Event event = events.get(index);
+        int pointerCount = event.pointerIds.length;
+        MotionEvent.PointerProperties[] properties = new MotionEvent.PointerProperties[pointerCount];
+        MotionEvent.PointerCoords[] coords = new MotionEvent.PointerCoords[pointerCount];
+        for (int p = 0; p < pointerCount; p++) {
+            properties[p] = new MotionEvent.PointerProperties();
+            properties[p].id = event.pointerIds[p];
+            properties[p].toolType = MotionEvent.TOOL_TYPE_FINGER;
+            coords[p] = new MotionEvent.PointerCoords();
+        }
+
+        event.fillCoords(0, coords, scale);
+        int action = event.action;
+        if (action == MotionEvent.ACTION_POINTER_DOWN || action == MotionEvent.ACTION_POINTER_UP) {
+            action |= event.actionIndex << MotionEvent.ACTION_POINTER_INDEX_SHIFT;
+        }
+        MotionEvent motionEvent = MotionEvent.obtain(downTime, downTime + event.times[0], action,
+                pointerCount, properties, coords, 0, 0, 1, 1, 0, 0, 0, 0);
+        for (int s = 1; s < event.times.length; s++) {
+            event.fillCoords(s, coords, scale);
+            motionEvent.addBatch(downTime + event.times[s], coords, 0);
+        }
+        return motionEvent;
+    }
+
+    public void write(OutputStream outputStream) throws IOException {
+        DataOutputStream out = new DataOutputStream(outputStream);
+        out.writeInt(MAGIC);
+        out.writeShort(VERSION);
+        out.writeFloat(density);
+        out.writeInt(viewWidth);
+        out.writeInt(viewHeight);
+        out.writeInt(events.size());
+        for (Event event : events) {
+            int pointerCount = event.pointerIds.length;
+            out.writeByte(event.action);
+            out.writeByte(event.actionIndex);
+            out.writeByte(pointerCount);
+            for (int id : event.pointerIds) {
+                out.writeByte(id);
+            }
+            out.writeShort(event.times.length);
+            for (int s = 0; s < event.times.length; s++) {
+                out.writeInt(event.times[s]);
+                for (int i = 2 * s * pointerCount; i < 2 * (s + 1) * pointerCount; i++) {
+                    out.writeFloat(event.coords[i]);
+                }
+            }
+        }
+        out.flush();
+    }
+
+    public static TouchTrace read(InputStream inputStream) throws IOException {
+        DataInputStream in = new DataInputStream(inputStream);
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a touch trace");
+        }
+        short version = in.readShort();
+        if (version != VERSION) {
+            throw new IOException("Unsupported touch trace version " + version);
+        }
+        float density = in.readFloat();
+        int viewWidth = in.readInt();
+        int viewHeight = in.readInt();
+        int eventCount = in.readInt();
+        List<Event> events = new ArrayList<>(eventCount);
+        for (int e = 0; e < eventCount; e++) {
+            int action = in.readUnsignedByte();
+            int actionIndex = in.readUnsignedByte();
+            int pointerCount = in.readUnsignedByte();
+            int[] pointerIds = new int[pointerCount];
+            for (int p = 0; p < pointerCount; p++) {
+                pointerIds[p] = in.readUnsignedByte();
+            }
+            int sampleCount = in.readUnsignedShort();
+            int[] times = new int[sampleCount];
+            float[] coords = new float[2 * sampleCount * pointerCount];
+            int i = 0;
+            for (int s = 0; s < sampleCount; s++) {
+                times[s] = in.readInt();
+                for (int p = 0; p < 2 * pointerCount; p++) {
+                    coords[i++] = in.readFloat();
+                }
+            }
+            events.add(new Event(action, actionIndex, pointerIds, times, coords));
+        }
+        return new TouchTrace(density, viewWidth, viewHeight, events);
+    }
+
+    private static class Event {
+        final int action;
+        final int actionIndex;
+        final int[] pointerIds;
+        final int[] times;
+        final float[] coords;
+
+        Event(int action, int actionIndex, int[] pointerIds, int[] times, float[] coords) {
+            this.action = action;
+            this.actionIndex = actionIndex;
+            this.pointerIds = pointerIds;
+            this.times = times;
+            this.coords = coords;
+        }
+
+        void fillCoords(int sample, MotionEvent.PointerCoords[] target, float scale) {
+            int offset = 2 * sample * pointerIds.length;
+            for (int p = 0; p < pointerIds.length; p++) {
+                target[p].x = coords[offset + 2 * p] * scale;
+                target[p].y = coords[offset + 2 * p + 1] * scale;
+                target[p].pressure = 1;
+                target[p].size = 1;
+            }
+        }
+    }
+
+    public static class Builder {
+
+        private final float density;
+        private final int viewWidth;
+        private final int viewHeight;
+        private final List<Event> events = new ArrayList<>();
+        private long downTime = -1;
+
+        public Builder(float density, int viewWidth, int viewHeight) {
+            this.density = density;
+            this.viewWidth = viewWidth;
+            this.viewHeight = viewHeight;
+        }
+
+        /**
+         * Appends a copy of the event including all of its historical samples.
+         */
+        public Builder add(MotionEvent motionEvent) {
+            int action = motionEvent.getActionMasked();
+            if (action == MotionEvent.ACTION_DOWN || downTime < 0) {
+                downTime = motionEvent.getDownTime();
+            }
+            int pointerCount = motionEvent.getPointerCount();
+            int historySize = motionEvent.getHistorySize();
+            int[] pointerIds = new int[pointerCount];
+            for (int p = 0; p < pointerCount; p++) {
+                pointerIds[p] = motionEvent.getPointerId(p);
+            }
+            int[] times = new int[historySize + 1];
+            float[] coords = new float[2 * (historySize + 1) * pointerCount];
+            int i = 0;
+            for (int h = 0; h < historySize; h++) {
+                times[h] = (int) (motionEvent.getHistoricalEventTime(h) - downTime);
+                for (int p = 0; p < pointerCount; p++) {
+                    coords[i++] = motionEvent.getHistoricalX(p, h);
+                    coords[i++] = motionEvent.getHistoricalY(p, h);
+                }
+            }
+            times[historySize] = (int) (motionEvent.getEventTime() - downTime);
+            for (int p = 0; p < pointerCount; p++) {
+                coords[i++] = motionEvent.getX(p);
+                coords[i++] = motionEvent.getY(p);
+            }
+            events.add(new Event(action, motionEvent.getActionIndex(), pointerIds, times, coords));
+            return this;
+        }
+
+        public TouchTrace build() {
+            return new TouchTrace(density, viewWidth, viewHeight, new ArrayList<>(events));
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.ashideas.rnrangeslider;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.os.Debug;
+import android.os.SystemClock;
+import android.view.MotionEvent;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Replays a {@link TouchTrace} against a {@link RangeSlider}, drawing one frame after every event,
+ * so regressions of touch and draw paths show up as numbers.
+ * The trace is scaled to the density of the slider, so its view size is the same in dp.
+ */
+class TouchTracePlayer {
+
+    /**
+     * Replays the trace drawing into an offscreen bitmap of trace's view size.
+     */
+    public static Report replay(RangeSlider slider, TouchTrace trace) {
+        float scale = getScale(slider, trace);
+        Bitmap bitmap = Bitmap.createBitmap(Math.round(trace.getViewWidth() * scale),
+                Math.round(trace.getViewHeight() * scale), Bitmap.Config.ARGB_8888);
+        try {
+            return replay(slider, trace, new Canvas(bitmap));
+        } finally {
+            bitmap.recycle();
+        }
+    }
+
+    @SuppressWarnings("deprecation")
+    public static Report replay(RangeSlider slider, TouchTrace trace, Canvas canvas) {
+        float scale = getScale(slider, trace);
+        int width = Math.round(trace.getViewWidth() * scale);
+        int height = Math.round(trace.getViewHeight() * scale);
+        if (slider.getWidth() != width || slider.getHeight() != height) {
+            slider.layout(0, 0, width, height);
+        }
+
+        RangeSlider.OnValueChangeListener originalListener = slider.getOnValueChangeListener();
+        final int[] eventsFired = new int[1];
+        slider.setOnValueChangeListener(new RangeSlider.OnValueChangeListener() {
+            @Override
+            public void onValueChanged(long lowValue, long highValue, int inRangeCount, boolean fromUser) {
+                eventsFired[0]++;
+            }
+        });
+
+        TouchPredictor predictor = slider.getTouchPredictor();
+        if (predictor != null) {
+            predictor.resetError();
+        }
+
+        int frameCount = trace.getEventCount();
+        long[] drawTimes = new long[frameCount];
+        long downTime = SystemClock.uptimeMillis();
+        int allocations = 0;
+
+        try {
+            for (int i = 0; i < frameCount; i++) {
+                MotionEvent event = trace.obtainEvent(i, downTime, scale);
+                Debug.startAllocCounting();
+                Debug.resetThreadAllocCount();
+                slider.onTouchEvent(event);
+                long start = System.nanoTime();
+                TestSliders.drawFrame(slider, canvas);
+                drawTimes[i] = System.nanoTime() - start;
+                allocations += Debug.getThreadAllocCount();
+                Debug.stopAllocCounting();
+                event.recycle();
+            }
+        } finally {
+            slider.setOnValueChangeListener(originalListener);
+        }
+
+        Report report = new Report(drawTimes, allocations, eventsFired[0], slider.getLowValue(), slider.getHighValue());
+        if (predictor != null) {
+            report.predictionMeanError = predictor.getMeanError();
+            report.predictionMaxError = predictor.getMaxError();
+        }
+        return report;
+    }
+
+    private static float getScale(RangeSlider slider, TouchTrace trace) {
+        return slider.getResources().getDisplayMetrics().density / trace.getDensity();
+    }
+
+    public static class Report {
+        private final long[] drawTimesNanos;
+        private final int allocations;
+        private final int eventsFired;
+        private final long lowValue;
+        private final long highValue;
+        private float predictionMeanError = -1;
+        private float predictionMaxError = -1;
+
+        Report(long[] drawTimesNanos, int allocations, int eventsFired, long lowValue, long highValue) {
+            this.drawTimesNanos = drawTimesNanos;
+            this.allocations = allocations;
+            this.eventsFired = eventsFired;
+            this.lowValue = lowValue;
+            this.highValue = highValue;
+        }
+
+        public int getFrameCount() {
+            return drawTimesNanos.length;
+        }
+
+        public long[] getDrawTimesNanos() {
+            return drawTimesNanos.clone();
+        }
+
+        /**
+         * @param percentile value in [0, 100]
+         */
+        public long getDrawTimePercentileNanos(int percentile) {
+            if (drawTimesNanos.length == 0) {
+                return 0;
+            }
+            long[] sorted = drawTimesNanos.clone();
+            Arrays.sort(sorted);
+            int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+            return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+        }
+
+        /**
+         * Objects allocated on the replaying thread during touch handling and drawing, for the whole trace.
+         */
+        public int getAllocations() {
+            return allocations;
+        }
+
+        public int getEventsFired() {
+            return eventsFired;
+        }
+
+        public long getLowValue() {
+            return lowValue;
+        }
+
+        public long getHighValue() {
+            return highValue;
+        }
+
+        /**
+         * @return mean absolute error of drawn thumb position prediction in pixels, -1 if prediction is disabled
+         */
+        public float getPredictionMeanError() {
+            return predictionMeanError;
+        }
+
+        /**
+         * @return max absolute error of drawn thumb position prediction in pixels, -1 if prediction is disabled
+         */
+        public float getPredictionMaxError() {
+            return predictionMaxError;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.US,
+                    "frames=%d p50=%dus p90=%dus max=%dus allocations=%d events=%d low=%d high=%d predictionError=%.2f/%.2fpx",
+                    getFrameCount(),
+                    getDrawTimePercentileNanos(50) / 1000,
+                    getDrawTimePercentileNanos(90) / 1000,
+                    getDrawTimePercentileNanos(100) / 1000,
+                    allocations, eventsFired, lowValue, highValue, predictionMeanError, predictionMaxError);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.ashideas.rnrangeslider;
+
+import android.view.MotionEvent;
+import android.view.View;
+
+/**
+ * Records touch events of a view without consuming them.
+ * Attach it with {@link View#setOnTouchListener(View.OnTouchListener)} and call {@link #stop()} to get the trace.
+ */
+class TouchTraceRecorder implements View.OnTouchListener {
+
+    private TouchTrace.Builder builder;
+
+    @Override
+    public boolean onTouch(View view, MotionEvent event) {
+        if (builder == null) {
+            builder = new TouchTrace.Builder(view.getResources().getDisplayMetrics().density, view.getWidth(), view.getHeight());
+        }
+        builder.add(event);
+        return false;
+    }
+
+    /**
+     * @return the recorded trace, or null if nothing was recorded
+     */
+    public TouchTrace stop() {
+        TouchTrace trace = builder == null ? null : builder.build();
+        builder = null;
+        return trace;
+    }
+}
@@ -0,0 +1,129 @@
+package com.ashideas.rnrangeslider;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Replays drags of the low, high and middle thumbs and checks the resulting values and draw times.
+ *
+ * Traces in {@code assets/traces} are synthetic, made by {@code src/androidTest/traces/generate_traces.py}
+ * for a 300x100dp slider configured by {@link TestSliders#create(Context)} at density 1. They imitate real drags
+ * (eased strokes with overshoot, tremor, 120Hz samples batched per frame) but weren't recorded on a device.
+ * To add a recorded trace, attach a {@link TouchTraceRecorder} to a slider with the same configuration
+ * and save the result of {@link TouchTraceRecorder#stop()} with {@link TouchTrace#write}.
+ */
+@RunWith(AndroidJUnit4.class)
+public class TouchTraceTest {
+
+    private static final String TAG = "TouchTraceTest";
+
+    // A frame at 60fps, p90 of a single onDraw should be far below it
+    private static final long DRAW_TIME_BUDGET_NANOS = 16000000;
+
+    // Prediction error bounds in dp, the generated traces stay below 1.3dp mean and 3.3dp max error
+    private static final float PREDICTION_MEAN_ERROR_DP = 2;
+    private static final float PREDICTION_MAX_ERROR_DP = 5;
+
+    private static final String[] TRACES = {"low_thumb_drag.bin", "high_thumb_drag.bin", "middle_thumb_drag.bin"};
+
+    @Test
+    public void lowThumbDrag() throws IOException {
+        TouchTracePlayer.Report report = replay("low_thumb_drag.bin");
+        // The thumb is dragged to the start and back
+        assertEquals(20, report.getLowValue(), 1);
+        assertEquals(80, report.getHighValue());
+        assertTrue(report.toString(), report.getEventsFired() >= 20);
+        assertDrawTime(report);
+    }
+
+    @Test
+    public void highThumbDrag() throws IOException {
+        TouchTracePlayer.Report report = replay("high_thumb_drag.bin");
+        // The thumb is dragged to the end and back
+        assertEquals(20, report.getLowValue());
+        assertEquals(80, report.getHighValue(), 1);
+        assertTrue(report.toString(), report.getEventsFired() >= 20);
+        assertDrawTime(report);
+    }
+
+    @Test
+    public void middleThumbDrag() throws IOException {
+        TouchTracePlayer.Report report = replay("middle_thumb_drag.bin");
+        // The selected range is dragged to both ends and back, keeping its length
+        assertEquals(60, report.getHighValue() - report.getLowValue(), 1);
+        assertEquals(20, report.getLowValue(), 1);
+        assertTrue(report.toString(), report.getEventsFired() >= 25);
+        assertDrawTime(report);
+    }
+
+    /**
+     * Prediction only moves drawn thumbs, so values and events must be the same as without it.
+     */
+    @Test
+    public void predictiveTouch() throws IOException {
+        float density = InstrumentationRegistry.getInstrumentation().getTargetContext().getResources().getDisplayMetrics().density;
+        for (String name : TRACES) {
+            TouchTracePlayer.Report plain = replay(name, false);
+            TouchTracePlayer.Report predicted = replay(name, true);
+            String message = name + ": " + predicted;
+            assertEquals(message, plain.getLowValue(), predicted.getLowValue());
+            assertEquals(message, plain.getHighValue(), predicted.getHighValue());
+            assertEquals(message, plain.getEventsFired(), predicted.getEventsFired());
+            // Zero would mean that no prediction was verified
+            assertTrue(message, predicted.getPredictionMeanError() > 0);
+            assertTrue(message, predicted.getPredictionMeanError() / density < PREDICTION_MEAN_ERROR_DP);
+            assertTrue(message, predicted.getPredictionMaxError() / density < PREDICTION_MAX_ERROR_DP);
+            assertDrawTime(predicted);
+        }
+    }
+
+    private TouchTracePlayer.Report replay(String name) throws IOException {
+        return replay(name, false);
+    }
+
+    private TouchTracePlayer.Report replay(final String name, final boolean predictive) throws IOException {
+        final TouchTrace trace = readTrace(name);
+        final TouchTracePlayer.Report[] report = new TouchTracePlayer.Report[1];
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                RangeSlider slider = TestSliders.create(InstrumentationRegistry.getInstrumentation().getTargetContext());
+                slider.setPredictiveTouchEnabled(predictive);
+                try {
+                    report[0] = TouchTracePlayer.replay(slider, trace);
+                } finally {
+                    slider.release();
+                }
+            }
+        });
+        Log.i(TAG, name + ": " + report[0]);
+        assertEquals(trace.getEventCount(), report[0].getFrameCount());
+        return report[0];
+    }
+
+    private static void assertDrawTime(TouchTracePlayer.Report report) {
+        assertTrue(report.toString(), report.getDrawTimePercentileNanos(90) < DRAW_TIME_BUDGET_NANOS);
+    }
+
+    private static TouchTrace readTrace(String name) throws IOException {
+        Context testContext = InstrumentationRegistry.getInstrumentation().getContext();
+        InputStream inputStream = testContext.getAssets().open("traces/" + name);
+        try {
+            return TouchTrace.read(inputStream);
+        } finally {
+            inputStream.close();
+        }
+    }
+}
@@ -0,0 +1,134 @@
+#!/usr/bin/env python3
+"""
+Generates the synthetic touch traces in ../assets/traces, see TouchTrace for the format.
+
+The traces are not recorded on a device. They imitate one: fingers follow minimum-jerk strokes
+with a small overshoot and correction, x has tremor and noise, y drifts, the digitizer reports
+samples at 120Hz with timing jitter, and samples are batched into one event per 60Hz frame,
+so events carry one to four samples. A fixed seed per trace keeps the output stable.
+
+Coordinates are dp of a 300x100dp slider configured by TestSliders.create(), written with density 1.
+Run it from this directory: python3 generate_traces.py
+"""
+
+import math
+import os
+import random
+import struct
+
+MAGIC = 0x52535454
+VERSION = 1
+DENSITY = 1.0
+WIDTH = 300
+HEIGHT = 100
+
+ACTION_DOWN = 0
+ACTION_UP = 1
+ACTION_MOVE = 2
+
+SAMPLE_INTERVAL = 1000 / 120.0
+FRAME_INTERVAL = 1000 / 60.0
+DROPPED_FRAME_CHANCE = 0.05
+
+OUTPUT = os.path.join(os.path.dirname(os.path.abspath(__file__)), '..', 'assets', 'traces')
+
+# name: (seed, start x, y, [(target x, duration ms, dwell ms after it)])
+TRACES = {
+    # Low thumb (value 20 at x 66) to the start and back
+    'low_thumb_drag.bin': (26, 66, 15, [(3, 420, 150), (70, 380, 0), (66, 160, 120)]),
+    # High thumb (value 80 at x 234) to the end and back
+    'high_thumb_drag.bin': (27, 234, 15, [(297, 420, 150), (230, 380, 0), (234, 160, 120)]),
+    # Scroller (middle of 20 and 80 at x 150) to both ends and back
+    'middle_thumb_drag.bin': (28, 150, 45, [(296, 450, 100), (4, 700, 100), (146, 420, 0), (150, 150, 120)]),
+}
+
+
+def minimum_jerk(s):
+    return s * s * s * (10 - 15 * s + 6 * s * s)
+
+
+def build_path(start_x, strokes, dwell_before):
+    """
+    Returns (duration, function of time giving the ideal x).
+    """
+    segments = []
+    t = dwell_before
+    x = start_x
+    for target, duration, dwell in strokes:
+        segments.append((t, duration, x, target))
+        t += duration + dwell
+        x = target
+
+    def position(time):
+        result = start_x
+        for begin, duration, x0, x1 in segments:
+            if time < begin:
+                break
+            s = min(1.0, (time - begin) / duration)
+            result = x0 + (x1 - x0) * minimum_jerk(s)
+        return result
+
+    return t, position
+
+
+def generate(seed, start_x, base_y, strokes):
+    rng = random.Random(seed)
+    duration, position = build_path(start_x, strokes, dwell_before=rng.uniform(60, 120))
+    tremor_phase = rng.uniform(0, 2 * math.pi)
+    tremor_frequency = rng.uniform(8, 11) / 1000.0
+
+    # Digitizer samples, integer milliseconds like MotionEvent times
+    samples = []
+    y = base_y
+    last_time = -1
+    k = 0
+    while True:
+        time = int(round(k * SAMPLE_INTERVAL + rng.uniform(-0.7, 0.7)))
+        k += 1
+        if time <= last_time:
+            continue
+        if time > duration:
+            break
+        last_time = time
+        # Tremor and noise stay below half a dp, so a stroke still ends on the value it was aimed at
+        x = position(time) + 0.3 * math.sin(2 * math.pi * tremor_frequency * time + tremor_phase) + rng.gauss(0, 0.12)
+        y = base_y + max(-4.0, min(4.0, (y - base_y) * 0.98 + rng.gauss(0, 0.15)))
+        samples.append((time, x, y))
+
+    # The first sample is the down event, the rest are batched per frame
+    events = [(ACTION_DOWN, [samples[0]])]
+    frame_end = FRAME_INTERVAL
+    batch = []
+    for sample in samples[1:]:
+        while sample[0] > frame_end:
+            if batch and rng.random() >= DROPPED_FRAME_CHANCE:
+                events.append((ACTION_MOVE, batch))
+                batch = []
+            frame_end += FRAME_INTERVAL
+        batch.append(sample)
+    if batch:
+        events.append((ACTION_MOVE, batch))
+    last = samples[-1]
+    events.append((ACTION_UP, [(last[0] + rng.randint(4, 12), last[1], last[2])]))
+    return events
+
+
+def write(path, events):
+    with open(path, 'wb') as out:
+        out.write(struct.pack('>ihfiii', MAGIC, VERSION, DENSITY, WIDTH, HEIGHT, len(events)))
+        for action, samples in events:
+            # Single pointer with id 0
+            out.write(struct.pack('>BBBBH', action, 0, 1, 0, len(samples)))
+            for time, x, y in samples:
+                out.write(struct.pack('>iff', time, x, y))
+
+
+def main():
+    for name, (seed, start_x, y, strokes) in sorted(TRACES.items()):
+        events = generate(seed, start_x, y, strokes)
+        write(os.path.join(OUTPUT, name), events)
+        print('%s: %d events' % (name, len(events)))
+
+
+if __name__ == '__main__':
+    main()
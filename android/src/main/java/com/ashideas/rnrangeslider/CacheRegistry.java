@@ -0,0 +1,96 @@
+package com.ashideas.rnrangeslider;
+
+import android.content.ComponentCallbacks2;
+import android.content.Context;
+import android.content.res.Configuration;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.WeakHashMap;
+
+/**
+ * Keeps track of caches of all sliders and trims them on memory pressure.
+ * Caches are referenced weakly, so a cache of a leaked view doesn't stay here forever.
+ * All methods must be called on the UI thread.
+ */
+class CacheRegistry implements ComponentCallbacks2 {
+
+    interface Cache {
+        /**
+         * Name for diagnostics, caches with the same name are reported together.
+         */
+        String getName();
+
+        /**
+         * @return number of cached entries
+         */
+        int size();
+
+        /**
+         * Releases some or all of cached entries depending on the level.
+         *
+         * @param level one of {@link ComponentCallbacks2}'s TRIM_MEMORY_* constants
+         */
+        void trim(int level);
+    }
+
+    private static CacheRegistry instance;
+
+    private final Set<Cache> caches = Collections.newSetFromMap(new WeakHashMap<Cache, Boolean>());
+
+    /**
+     * Starts listening to memory pressure, subsequent calls do nothing.
+     */
+    static synchronized void register(Context context) {
+        if (instance == null) {
+            instance = new CacheRegistry();
+            context.getApplicationContext().registerComponentCallbacks(instance);
+        }
+    }
+
+    static void add(Cache cache) {
+        if (instance != null) {
+            instance.caches.add(cache);
+        }
+    }
+
+    static void remove(Cache cache) {
+        if (instance != null) {
+            instance.caches.remove(cache);
+        }
+    }
+
+    /**
+     * @return total number of entries per cache name
+     */
+    static Map<String, Integer> getCacheSizes() {
+        Map<String, Integer> sizes = new TreeMap<>();
+        if (instance == null) {
+            return sizes;
+        }
+        for (Cache cache : new ArrayList<>(instance.caches)) {
+            Integer size = sizes.get(cache.getName());
+            sizes.put(cache.getName(), (size == null ? 0 : size) + cache.size());
+        }
+        return sizes;
+    }
+
+    @Override
+    public void onTrimMemory(int level) {
+        for (Cache cache : new ArrayList<>(caches)) {
+            cache.trim(level);
+        }
+    }
+
+    @Override
+    public void onLowMemory() {
+        onTrimMemory(TRIM_MEMORY_COMPLETE);
+    }
+
+    @Override
+    public void onConfigurationChanged(Configuration newConfig) {
+    }
+}
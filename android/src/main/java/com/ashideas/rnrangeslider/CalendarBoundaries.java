@@ -0,0 +1,206 @@
+package com.ashideas.rnrangeslider;
+
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.TimeZone;
+
+/**
+ * Sorted table of local calendar boundaries (hours, days, weeks, months or years) between min and max,
+ * used for snapping time sliders. Unlike a fixed step, boundaries follow DST changes and month lengths.
+ *
+ * The table is built once per (min, max, unit, time zone), so snapping is a binary search and
+ * no {@link Calendar} is needed while touching. Labels of boundaries are built in background by
+ * {@link LabelLayoutCache} like labels of any other values.
+ */
+class CalendarBoundaries {
+
+    static final String HOUR = "hour";
+    static final String DAY = "day";
+    static final String WEEK = "week";
+    static final String MONTH = "month";
+    static final String YEAR = "year";
+
+    private static final int MAX_COUNT = 100000;
+    private static final long HOUR_MILLIS = 60 * 60 * 1000L;
+
+    private final long min;
+    private final long max;
+    private final String unit;
+    private final String timeZoneId;
+
+    // Null if the range has too many boundaries for the unit
+    private final long[] values;
+
+    private CalendarBoundaries(long min, long max, String unit, String timeZoneId, long[] values) {
+        this.min = min;
+        this.max = max;
+        this.unit = unit;
+        this.timeZoneId = timeZoneId;
+        this.values = values;
+    }
+
+    /**
+     * Builds boundaries of the unit within [min, max], both ends are included as well.
+     */
+    static CalendarBoundaries create(long min, long max, String unit, TimeZone timeZone) {
+        int field = getField(unit);
+        // Estimate with the shortest possible unit length, so huge ranges are rejected before building anything
+        if (field < 0 || (max - min) / getMinLength(field) > MAX_COUNT) {
+            return new CalendarBoundaries(min, max, unit, timeZone.getID(), null);
+        }
+
+        Calendar calendar = Calendar.getInstance(timeZone);
+        calendar.setTimeInMillis(min);
+        truncate(calendar, field);
+        long start = calendar.getTimeInMillis();
+
+        long[] values = new long[16];
+        int count = 0;
+        values[count++] = min;
+        for (int i = 0; ; i++) {
+            // Always count from the start, so a boundary moved by a DST gap doesn't shift the following ones
+            calendar.setTimeInMillis(start);
+            calendar.add(field, i);
+            long value = calendar.getTimeInMillis();
+            if (value >= max) {
+                break;
+            }
+            if (value <= values[count - 1]) {
+                continue;
+            }
+            if (count == values.length) {
+                values = Arrays.copyOf(values, 2 * count);
+            }
+            values[count++] = value;
+        }
+        if (count == values.length) {
+            values = Arrays.copyOf(values, count + 1);
+        }
+        if (max > values[count - 1]) {
+            values[count++] = max;
+        }
+        return new CalendarBoundaries(min, max, unit, timeZone.getID(), Arrays.copyOf(values, count));
+    }
+
+    boolean matches(long min, long max, String unit, String timeZoneId) {
+        return this.min == min && this.max == max && this.unit.equals(unit) && this.timeZoneId.equals(timeZoneId);
+    }
+
+    /**
+     * @return false if the range has too many boundaries, snapping should fall back to step then
+     */
+    boolean isAvailable() {
+        return values != null;
+    }
+
+    int getCount() {
+        return values.length;
+    }
+
+    long get(int index) {
+        return values[index];
+    }
+
+    /**
+     * @return the boundary closest to the value
+     */
+    long nearest(long value) {
+        return values[nearestIndex(value)];
+    }
+
+    /**
+     * @return the closest boundary below the value, or the first one
+     */
+    long previous(long value) {
+        int index = Arrays.binarySearch(values, value);
+        int previous = index >= 0 ? index - 1 : -index - 2;
+        return values[Math.max(0, previous)];
+    }
+
+    /**
+     * @return the closest boundary above the value, or the last one
+     */
+    long next(long value) {
+        int index = Arrays.binarySearch(values, value);
+        int next = index >= 0 ? index + 1 : -index - 1;
+        return values[Math.min(values.length - 1, next)];
+    }
+
+    /**
+     * Moves a boundary by a number of boundaries.
+     *
+     * @return the boundary {@code count} positions after the one closest to the value, clamped to the table
+     */
+    long offset(long value, int count) {
+        int index = (int) Utils.clamp(nearestIndex(value) + (long) count, 0, values.length - 1);
+        return values[index];
+    }
+
+    int nearestIndex(long value) {
+        int index = Arrays.binarySearch(values, value);
+        if (index >= 0) {
+            return index;
+        }
+        int next = -index - 1;
+        if (next == 0) {
+            return 0;
+        } else if (next == values.length) {
+            return values.length - 1;
+        }
+        return value - values[next - 1] <= values[next] - value ? next - 1 : next;
+    }
+
+    private static int getField(String unit) {
+        if (HOUR.equals(unit)) {
+            return Calendar.HOUR_OF_DAY;
+        } else if (DAY.equals(unit)) {
+            return Calendar.DAY_OF_MONTH;
+        } else if (WEEK.equals(unit)) {
+            return Calendar.WEEK_OF_YEAR;
+        } else if (MONTH.equals(unit)) {
+            return Calendar.MONTH;
+        } else if (YEAR.equals(unit)) {
+            return Calendar.YEAR;
+        }
+        return -1;
+    }
+
+    /**
+     * @return the shortest possible length of the unit in milliseconds, e.g. a day with a DST change
+     */
+    private static long getMinLength(int field) {
+        switch (field) {
+            case Calendar.HOUR_OF_DAY:
+                return HOUR_MILLIS;
+            case Calendar.DAY_OF_MONTH:
+                return 22 * HOUR_MILLIS;
+            case Calendar.WEEK_OF_YEAR:
+                return 7 * 24 * HOUR_MILLIS - 2 * HOUR_MILLIS;
+            case Calendar.MONTH:
+                return 28 * 24 * HOUR_MILLIS - 2 * HOUR_MILLIS;
+            default:
+                return 365 * 24 * HOUR_MILLIS - 2 * HOUR_MILLIS;
+        }
+    }
+
+    /**
+     * Moves the calendar back to the start of the unit containing its time.
+     */
+    private static void truncate(Calendar calendar, int field) {
+        calendar.set(Calendar.MILLISECOND, 0);
+        calendar.set(Calendar.SECOND, 0);
+        calendar.set(Calendar.MINUTE, 0);
+        if (field == Calendar.HOUR_OF_DAY) {
+            return;
+        }
+        calendar.set(Calendar.HOUR_OF_DAY, 0);
+        if (field == Calendar.WEEK_OF_YEAR) {
+            int days = (calendar.get(Calendar.DAY_OF_WEEK) - calendar.getFirstDayOfWeek() + 7) % 7;
+            calendar.add(Calendar.DAY_OF_MONTH, -days);
+        } else if (field == Calendar.MONTH) {
+            calendar.set(Calendar.DAY_OF_MONTH, 1);
+        } else if (field == Calendar.YEAR) {
+            calendar.set(Calendar.DAY_OF_YEAR, 1);
+        }
+    }
+}
@@ -0,0 +1,346 @@
+package com.ashideas.rnrangeslider;
+
+import android.content.ComponentCallbacks2;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.os.Handler;
+import android.os.Looper;
+import android.text.Layout;
+import android.text.StaticLayout;
+import android.text.TextPaint;
+import android.util.LongSparseArray;
+
+import androidx.core.text.PrecomputedTextCompat;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Keeps label text layouts for values around the active thumb.
+ *
+ * Formatting and text shaping (with {@link PrecomputedTextCompat}, which uses PrecomputedText where available)
+ * happen on a worker thread, finished layouts are handed over on the UI thread.
+ * Only the layout of the value under a new touch is built on the UI thread, see {@link #buildNow}.
+ * All methods must be called on the UI thread.
+ */
+class LabelLayoutCache implements CacheRegistry.Cache {
+
+    private static final int PREFETCH_RADIUS = 16;
+    private static final int MAX_SIZE = 4 * PREFETCH_RADIUS + 2;
+
+    private static final Executor EXECUTOR = Executors.newSingleThreadExecutor(new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "RangeSliderLabels");
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+
+    interface Listener {
+        /**
+         * Called on the UI thread when layouts built in background are added to the cache.
+         */
+        void onLayoutsBuilt();
+    }
+
+    static class LabelLayout {
+        final float width;
+        private final StaticLayout layout;
+
+        LabelLayout(float width, StaticLayout layout) {
+            this.width = width;
+            this.layout = layout;
+        }
+
+        /**
+         * @param left left of the text
+         * @param top top of the text, i.e. baseline + ascent
+         */
+        void draw(Canvas canvas, float left, float top) {
+            canvas.save();
+            canvas.translate(left, top);
+            layout.draw(canvas);
+            canvas.restore();
+        }
+    }
+
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final LongSparseArray<LabelLayout> layouts = new LongSparseArray<>();
+    private final LongSparseArray<Boolean> pending = new LongSparseArray<>();
+    private final Listener listener;
+
+    private int generation;
+    private LabelTextFormatter formatterSnapshot;
+    private TextPaint paintSnapshot;
+    private PrecomputedTextCompat.Params paramsSnapshot;
+
+    private long lastCenter;
+    private boolean hasLastCenter;
+    private boolean synchronous;
+
+    // Latest prefetch request, queued batches skip values which are already too far from it
+    private volatile long requestedCenter;
+    private volatile long requestedRadius = Long.MAX_VALUE;
+
+    LabelLayoutCache(Listener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * If true, layouts are built on the calling thread. Used for measuring draw budgets.
+     */
+    void setSynchronous(boolean synchronous) {
+        this.synchronous = synchronous;
+    }
+
+    /**
+     * @return a finished layout for the value, or null if it's not ready yet
+     */
+    LabelLayout get(long value) {
+        return layouts.get(value);
+    }
+
+    /**
+     * @return the finished layout of the value closest to the given one, or null if there are no layouts
+     */
+    LabelLayout getNearest(long value) {
+        LabelLayout nearest = null;
+        long nearestDistance = Long.MAX_VALUE;
+        for (int i = 0; i < layouts.size(); i++) {
+            long distance = Math.abs(layouts.keyAt(i) - value);
+            if (distance < nearestDistance) {
+                nearestDistance = distance;
+                nearest = layouts.valueAt(i);
+            }
+        }
+        return nearest;
+    }
+
+    /**
+     * Builds the layout for the value on the calling thread if it's not ready yet.
+     * Meant to be called when a touch starts, so drawing never has to shape text.
+     */
+    LabelLayout buildNow(long value, LabelTextFormatter formatter, Paint paint) {
+        LabelLayout layout = layouts.get(value);
+        if (layout == null) {
+            TextPaint textPaint = new TextPaint(paint);
+            PrecomputedTextCompat.Params params = new PrecomputedTextCompat.Params.Builder(textPaint).build();
+            layout = createLayout(formatter.format(value), textPaint, params);
+            layouts.put(value, layout);
+            // Trim around the new value, the next prefetch centers on it anyway
+            lastCenter = value;
+            hasLastCenter = false;
+            trimTo(MAX_SIZE);
+        }
+        return layout;
+    }
+
+    /**
+     * Schedules layouts for values within {@link #PREFETCH_RADIUS} steps from the center, closest values first.
+     * Formatter and paint are copied, so they may be changed afterwards (followed by {@link #invalidate()}).
+     */
+    void prefetch(long center, long step, long min, long max, LabelTextFormatter formatter, Paint paint) {
+        if (hasLastCenter && center == lastCenter) {
+            return;
+        }
+        long[] values = new long[2 * PREFETCH_RADIUS + 1];
+        int count = 0;
+        for (int i = 0; i < values.length; i++) {
+            long value = center + getOffset(i) * step;
+            if (value >= min && value <= max) {
+                values[count++] = value;
+            }
+        }
+        long radius = step > Long.MAX_VALUE / PREFETCH_RADIUS ? Long.MAX_VALUE : step * PREFETCH_RADIUS;
+        schedule(center, radius, values, count, formatter, paint);
+    }
+
+    /**
+     * Schedules layouts for calendar boundaries within {@link #PREFETCH_RADIUS} boundaries from the center.
+     */
+    void prefetch(long center, CalendarBoundaries boundaries, LabelTextFormatter formatter, Paint paint) {
+        if (hasLastCenter && center == lastCenter) {
+            return;
+        }
+        int index = boundaries.nearestIndex(center);
+        long[] values = new long[2 * PREFETCH_RADIUS + 1];
+        int count = 0;
+        for (int i = 0; i < values.length; i++) {
+            int boundary = index + getOffset(i);
+            if (boundary >= 0 && boundary < boundaries.getCount()) {
+                values[count++] = boundaries.get(boundary);
+            }
+        }
+        long first = boundaries.get(Math.max(0, index - PREFETCH_RADIUS));
+        long last = boundaries.get(Math.min(boundaries.getCount() - 1, index + PREFETCH_RADIUS));
+        schedule(center, Math.max(center - first, last - center), values, count, formatter, paint);
+    }
+
+    /**
+     * @return 0, 1, -1, 2, -2... for i = 0, 1, 2, 3, 4...
+     */
+    private static int getOffset(int i) {
+        return i % 2 == 0 ? -i / 2 : i / 2 + 1;
+    }
+
+    /**
+     * Queues values which are neither built nor pending.
+     *
+     * @param radius distance from the center beyond which queued values are not worth building anymore
+     */
+    private void schedule(long center, long radius, long[] values, int count,
+                          LabelTextFormatter formatter, Paint paint) {
+        hasLastCenter = true;
+        lastCenter = center;
+        requestedCenter = center;
+        requestedRadius = radius;
+
+        int missing = 0;
+        for (int i = 0; i < count; i++) {
+            long value = values[i];
+            if (layouts.get(value) != null || pending.get(value) != null) {
+                continue;
+            }
+            values[missing++] = value;
+            pending.put(value, Boolean.TRUE);
+        }
+        if (missing == 0) {
+            return;
+        }
+
+        if (formatterSnapshot == null) {
+            formatterSnapshot = formatter.copy();
+            paintSnapshot = new TextPaint(paint);
+            paramsSnapshot = new PrecomputedTextCompat.Params.Builder(paintSnapshot).build();
+        }
+        BuildTask task = new BuildTask(generation, values, missing, formatterSnapshot, paintSnapshot, paramsSnapshot, synchronous);
+        if (synchronous) {
+            task.run();
+        } else {
+            EXECUTOR.execute(task);
+        }
+    }
+
+    /**
+     * Drops all layouts, should be called when anything affecting label text or paint changes.
+     */
+    void invalidate() {
+        generation++;
+        layouts.clear();
+        pending.clear();
+        formatterSnapshot = null;
+        paintSnapshot = null;
+        paramsSnapshot = null;
+        hasLastCenter = false;
+    }
+
+    @Override
+    public String getName() {
+        return "labelLayouts";
+    }
+
+    @Override
+    public int size() {
+        return layouts.size();
+    }
+
+    @Override
+    public void trim(int level) {
+        if (level >= ComponentCallbacks2.TRIM_MEMORY_RUNNING_CRITICAL) {
+            invalidate();
+        } else if (level >= ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW) {
+            trimTo(PREFETCH_RADIUS);
+        } else if (level >= ComponentCallbacks2.TRIM_MEMORY_RUNNING_MODERATE) {
+            trimTo(2 * PREFETCH_RADIUS + 1);
+        }
+    }
+
+    private void onLayoutsBuilt(int generation, long[] values, LabelLayout[] built, int count) {
+        if (generation != this.generation) {
+            return;
+        }
+        boolean added = false;
+        for (int i = 0; i < count; i++) {
+            pending.remove(values[i]);
+            if (built[i] != null) { // Null if skipped
+                layouts.put(values[i], built[i]);
+                added = true;
+            }
+        }
+        if (added) {
+            trimTo(MAX_SIZE);
+            listener.onLayoutsBuilt();
+        }
+    }
+
+    /**
+     * Removes layouts farthest from the last prefetch center.
+     */
+    private void trimTo(int maxSize) {
+        while (layouts.size() > maxSize) {
+            int farthest = 0;
+            long farthestDistance = -1;
+            for (int i = 0; i < layouts.size(); i++) {
+                long distance = Math.abs(layouts.keyAt(i) - lastCenter);
+                if (distance > farthestDistance) {
+                    farthestDistance = distance;
+                    farthest = i;
+                }
+            }
+            layouts.removeAt(farthest);
+        }
+    }
+
+    @SuppressWarnings("deprecation")
+    private static LabelLayout createLayout(String value, TextPaint paint, PrecomputedTextCompat.Params params) {
+        CharSequence text = PrecomputedTextCompat.create(value, params);
+        float width = Layout.getDesiredWidth(text, paint);
+        StaticLayout layout = new StaticLayout(text, paint, (int) Math.ceil(width),
+                Layout.Alignment.ALIGN_NORMAL, 1, 0, false);
+        return new LabelLayout(width, layout);
+    }
+
+    private class BuildTask implements Runnable {
+        private final int generation;
+        private final long[] values;
+        private final int count;
+        private final LabelTextFormatter formatter;
+        private final TextPaint paint;
+        private final PrecomputedTextCompat.Params params;
+        private final boolean synchronous;
+
+        BuildTask(int generation, long[] values, int count, LabelTextFormatter formatter,
+                  TextPaint paint, PrecomputedTextCompat.Params params, boolean synchronous) {
+            this.generation = generation;
+            this.values = values;
+            this.count = count;
+            this.formatter = formatter;
+            this.paint = paint;
+            this.params = params;
+            this.synchronous = synchronous;
+        }
+
+        @Override
+        public void run() {
+            final LabelLayout[] built = new LabelLayout[count];
+            for (int i = 0; i < count; i++) {
+                // The thumb may have moved on while the batch was queued, don't spend time on values it left behind
+                if (Math.abs(values[i] - requestedCenter) <= requestedRadius) {
+                    built[i] = createLayout(formatter.format(values[i]), paint, params);
+                }
+            }
+            if (synchronous) {
+                onLayoutsBuilt(generation, values, built, count);
+                return;
+            }
+            handler.post(new Runnable() {
+                @Override
+                public void run() {
+                    onLayoutsBuilt(generation, values, built, count);
+                }
+            });
+        }
+    }
+}
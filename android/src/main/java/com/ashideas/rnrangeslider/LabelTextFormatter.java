@@ -0,0 +1,196 @@
+package com.ashideas.rnrangeslider;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.IllegalFormatException;
+import java.util.TimeZone;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Formats slider values for labels.
+ *
+ * Values are fixed-point longs scaled by {@code 10^precision}. If precision is positive and text format
+ * has a single {@code %d}, {@code %f} or {@code %.Nf} conversion, the number is written with a reused
+ * {@link StringBuilder} instead of going through {@link String#format(String, Object...)}.
+ * Other formats get the value as a double, so their integer conversions (e.g. {@code %,d}) are rewritten to
+ * {@code %.Nf} once when format or precision changes.
+ */
+class LabelTextFormatter {
+
+    // Integer conversion with optional argument index, flags and width, or an escaped percent sign
+    private static final Pattern INTEGER_CONVERSION = Pattern.compile("%%|%(\\d+\\$)?([-#+ 0,(]*)(\\d*)d");
+
+    private String valueType;
+    private String textFormat;
+    private TimeZone timeZone;
+    private int precision;
+    private long scale = 1;
+
+    private final SimpleDateFormat dateTimeFormat;
+    private final Date dateTime;
+    private final StringBuilder builder;
+
+    // Text format split around its only numeric conversion, null if it has a different shape
+    private String prefix;
+    private String suffix;
+    // Text format for a double value, used if precision is positive and the format can't be split
+    private String decimalFormat;
+
+    LabelTextFormatter() {
+        dateTimeFormat = new SimpleDateFormat();
+        dateTime = new Date();
+        builder = new StringBuilder();
+    }
+
+    /**
+     * Creates a formatter with the same configuration, formatters are not thread safe.
+     */
+    LabelTextFormatter copy() {
+        LabelTextFormatter copy = new LabelTextFormatter();
+        copy.setPrecision(precision, scale);
+        copy.setTimeZone(timeZone);
+        copy.setValueType(valueType);
+        copy.setTextFormat(textFormat);
+        return copy;
+    }
+
+    void setValueType(String valueType) {
+        this.valueType = valueType;
+        applyPattern();
+    }
+
+    void setTextFormat(String textFormat) {
+        this.textFormat = textFormat;
+        applyPattern();
+        splitFormat();
+        decimalFormat = toDecimalFormat(textFormat, precision);
+    }
+
+    /**
+     * @param timeZone time zone of time labels, null for the default one
+     */
+    void setTimeZone(TimeZone timeZone) {
+        this.timeZone = timeZone;
+        dateTimeFormat.setTimeZone(timeZone == null ? TimeZone.getDefault() : timeZone);
+    }
+
+    void setPrecision(int precision, long scale) {
+        this.precision = precision;
+        this.scale = scale;
+        decimalFormat = toDecimalFormat(textFormat, precision);
+    }
+
+    String format(long value) {
+        if ("number".equals(valueType)) {
+            if (precision > 0 && prefix != null) {
+                builder.setLength(0);
+                builder.append(prefix);
+                appendFixedPoint(value);
+                builder.append(suffix);
+                return builder.toString();
+            }
+            try {
+                return precision == 0 ? String.format(textFormat, value) : String.format(decimalFormat, value / (double) scale);
+            } catch (IllegalFormatException e) {
+                // A conversion which doesn't accept a number, show the value rather than failing to draw
+                builder.setLength(0);
+                appendFixedPoint(value);
+                return builder.toString();
+            }
+        } else if ("time".equals(valueType)) {
+            dateTime.setTime(value);
+            return dateTimeFormat.format(dateTime);
+        } else { // For other formatting methods, add cases here
+            return "";
+        }
+    }
+
+    private void applyPattern() {
+        if ("time".equals(valueType)) {
+            dateTimeFormat.applyPattern(textFormat == null ? "" : textFormat);
+        }
+    }
+
+    private void appendFixedPoint(long value) {
+        if (value < 0) {
+            builder.append('-');
+            value = -value;
+        }
+        builder.append(value / scale);
+        if (precision == 0) {
+            return;
+        }
+        builder.append('.');
+        long fraction = value % scale;
+        for (long digit = scale / 10; digit > fraction && digit > 1; digit /= 10) {
+            builder.append('0');
+        }
+        builder.append(fraction);
+    }
+
+    /**
+     * @return the format with its integer conversions replaced by {@code %.Nf} with the same flags and width
+     */
+    private static String toDecimalFormat(String textFormat, int precision) {
+        if (textFormat == null || precision == 0) {
+            return textFormat;
+        }
+        Matcher matcher = INTEGER_CONVERSION.matcher(textFormat);
+        StringBuffer result = new StringBuffer();
+        while (matcher.find()) {
+            String replacement = matcher.group();
+            if (!"%%".equals(replacement)) {
+                String index = matcher.group(1) == null ? "" : matcher.group(1);
+                replacement = "%" + index + matcher.group(2) + matcher.group(3) + "." + precision + "f";
+            }
+            matcher.appendReplacement(result, Matcher.quoteReplacement(replacement));
+        }
+        matcher.appendTail(result);
+        return result.toString();
+    }
+
+    private void splitFormat() {
+        prefix = null;
+        suffix = null;
+        if (textFormat == null) {
+            return;
+        }
+
+        StringBuilder literal = new StringBuilder();
+        String before = null;
+        int length = textFormat.length();
+        for (int i = 0; i < length; i++) {
+            char c = textFormat.charAt(i);
+            if (c != '%') {
+                literal.append(c);
+                continue;
+            }
+            if (i + 1 < length && textFormat.charAt(i + 1) == '%') {
+                literal.append('%');
+                i++;
+                continue;
+            }
+            if (before != null) { // Second conversion
+                return;
+            }
+            int end = i + 1;
+            if (end < length && textFormat.charAt(end) == '.') {
+                end++;
+                while (end < length && Character.isDigit(textFormat.charAt(end))) {
+                    end++;
+                }
+            }
+            if (end >= length || (textFormat.charAt(end) != 'd' && textFormat.charAt(end) != 'f')) {
+                return;
+            }
+            before = literal.toString();
+            literal.setLength(0);
+            i = end;
+        }
+        if (before != null) {
+            prefix = before;
+            suffix = literal.toString();
+        }
+    }
+}
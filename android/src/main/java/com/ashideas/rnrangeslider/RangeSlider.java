@@ -1,6 +1,10 @@
 package com.ashideas.rnrangeslider;
 
+import android.content.BroadcastReceiver;
+import android.content.ComponentCallbacks2;
 import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
 import android.graphics.Canvas;
 import android.graphics.CornerPathEffect;
 import android.graphics.Paint;
@@ -8,14 +12,18 @@ import android.graphics.Path;
 import android.graphics.RectF;
 import android.util.AttributeSet;
 import android.util.TypedValue;
+import android.view.GestureDetector;
 import android.view.MotionEvent;
+import android.view.ScaleGestureDetector;
 import android.view.View;
 
 import androidx.annotation.Nullable;
 import androidx.core.view.ViewCompat;
 
-import java.text.SimpleDateFormat;
-import java.util.Date;
+import java.util.Arrays;
+import java.util.IllegalFormatException;
+import java.util.Map;
+import java.util.TimeZone;
 
 
 public class RangeSlider extends View {
@@ -39,8 +47,20 @@ public class RangeSlider extends View {
     private static final int THUMB_LOW = 0;
     private static final int THUMB_HIGH = 1;
     private static final int THUMB_MIDDLE = 2;
+    private static final int THUMB_BOTH = 3;
     private static final int THUMB_NONE = -1;
 
+    private static final double LONG_PRESS_ZOOM = 4;
+    private static final int MIN_VISIBLE_STEPS = 10;
+    // Part of the window panned per frame when the finger is at the very edge of the track
+    private static final double AUTO_PAN_SPEED = 0.02;
+    // Thumb is drawn one frame ahead of the finger if prediction is enabled
+    private static final long PREDICTION_HORIZON_MILLIS = 16;
+
+    private static final int MAX_PRECISION = 15;
+    // Limit of fixed-point values, leaves headroom for sums like low + high
+    private static final long MAX_FIXED_POINT = Long.MAX_VALUE / 4;
+
     private OnValueChangeListener onValueChangeListener;
     private OnSliderTouchListener onSliderTouchListener;
 
@@ -57,16 +77,30 @@ public class RangeSlider extends View {
 
     private LabelStyle labelStyle;
     private Path labelPath;
+    private Path thumbPath;
+    private RectF scrollerRect;
     private String textFormat;
     private float labelPadding;
     private float labelBorderWidth;
 
     private boolean rangeEnabled;
     private String valueType;
-    private SimpleDateFormat dateTimeFormat;
-    private Date dateTime;
+    private LabelTextFormatter labelTextFormatter;
+    private LabelLayoutCache labelLayoutCache;
     private Gravity gravity;
 
+    private int requestedPrecision;
+    private int precision;
+    private long scale;
+
+    // Decimal values as received from JS. Props may arrive before precision,
+    // so they are converted again if precision changes. NaN if not set.
+    private double minDecimal;
+    private double maxDecimal;
+    private double stepDecimal;
+    private double lowDecimal;
+    private double highDecimal;
+
     private long minValue;
     private long maxValue;
     private long step;
@@ -81,6 +115,67 @@ public class RangeSlider extends View {
 
     private int activeThumb;
 
+    // Static geometry, computed in updateLayout() when size or style changes
+    private float labelTextHeight;
+    private float labelHeight;
+    private float labelBaseline;
+    private float contentOffsetY;
+    private float contentHeight;
+    private float trackY;
+    private float trackWidth;
+    private float rulerLabelTop;
+    private float topGravityOffset;
+    private float scrollerGripSpacing;
+
+    private boolean multiTouchEnabled;
+    private int lowPointerId;
+    private int highPointerId;
+
+    // Sorted values for counting how many of them are in selected range
+    private long[] dataset;
+    private String countTextFormat;
+    // Count text format split around its only %d, null if it has a different shape
+    private String countTextPrefix;
+    private String countTextSuffix;
+    private StringBuilder countTextBuilder;
+    private int cachedCount;
+    private String countText;
+    private float countTextWidth;
+
+    private Viewport viewport;
+    private boolean viewportEnabled;
+    private GestureDetector gestureDetector;
+    private ScaleGestureDetector scaleGestureDetector;
+    private float lastTouchX;
+    private boolean autoPanScheduled;
+    private final Runnable autoPanRunnable = new Runnable() {
+        @Override
+        public void run() {
+            autoPan();
+        }
+    };
+
+    private TouchPredictor touchPredictor;
+
+    private boolean ticksEnabled;
+    private TickRuler tickRuler;
+
+    // Calendar snapping of time sliders, boundaries are rebuilt when min, max, unit or time zone change
+    private String calendarStep;
+    // Time zone set by the prop, null for the device time zone
+    private TimeZone timeZone;
+    // Time zone in use, resolved only when it changes so snapping never calls TimeZone.getDefault()
+    private TimeZone resolvedTimeZone;
+    private CalendarBoundaries calendarBoundaries;
+    private final BroadcastReceiver timeZoneReceiver = new BroadcastReceiver() {
+        @Override
+        public void onReceive(Context context, Intent intent) {
+            if (timeZone == null) {
+                resolveTimeZone();
+            }
+        }
+    };
+
     public RangeSlider(Context context) {
         super(context);
         init();
@@ -98,8 +193,18 @@ public class RangeSlider extends View {
 
     private void init() {
 
-        dateTimeFormat = new SimpleDateFormat();
-        dateTime = new Date();
+        labelTextFormatter = new LabelTextFormatter();
+        labelLayoutCache = new LabelLayoutCache(new LabelLayoutCache.Listener() {
+            @Override
+            public void onLayoutsBuilt() {
+                // The label may show the layout of a nearby value until the exact one arrives
+                if (activeThumb != THUMB_NONE) {
+                    invalidateContent();
+                }
+            }
+        });
+        viewport = new Viewport();
+        CacheRegistry.add(labelLayoutCache);
         activeThumb = THUMB_NONE;
 
         minValue = Long.MIN_VALUE;
@@ -109,7 +214,16 @@ public class RangeSlider extends View {
 
         step = 1;
 
+        scale = 1;
+        minDecimal = Double.NaN;
+        maxDecimal = Double.NaN;
+        stepDecimal = Double.NaN;
+        lowDecimal = Double.NaN;
+        highDecimal = Double.NaN;
+
         labelPath = new Path();
+        thumbPath = new Path();
+        scrollerRect = new RectF();
 
         selectionPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
         selectionPaint.setStrokeCap(Paint.Cap.ROUND);
@@ -128,6 +242,45 @@ public class RangeSlider extends View {
         thumbBorderPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
         thumbBorderPaint.setStyle(Paint.Style.STROKE);
         thumbBorderPaint.setStrokeWidth(dpToPx(2));
+
+        topGravityOffset = dpToPx(5);
+        scrollerGripSpacing = dpToPx(3);
+        resolvedTimeZone = TimeZone.getDefault();
+
+        tickRuler = new TickRuler(new TickRuler.LabelFormatter() {
+            @Override
+            public String format(long value) {
+                return formatLabelText(value);
+            }
+        }, dpToPx(6), dpToPx(48), dpToPx(4), dpToPx(8), dpToPx(2));
+        tickRuler.setTickWidth(dpToPx(1));
+        tickRuler.setTextSize(dpToPx(10));
+        CacheRegistry.add(tickRuler);
+    }
+
+    /**
+     * Releases caches and callbacks, the view should not be used after this.
+     */
+    public void release() {
+        CacheRegistry.remove(labelLayoutCache);
+        CacheRegistry.remove(tickRuler);
+        calendarBoundaries = null;
+        labelLayoutCache.invalidate();
+        tickRuler.trim(ComponentCallbacks2.TRIM_MEMORY_COMPLETE);
+        removeCallbacks(autoPanRunnable);
+        autoPanScheduled = false;
+        dataset = null;
+        countText = null;
+    }
+
+    /**
+     * Reports what caches of all sliders hold, e.g. to check how they react to memory pressure.
+     * Must be called on the UI thread.
+     *
+     * @return total number of cached entries per cache name: label layouts ("labelLayouts") and ticks ("ticks")
+     */
+    public static Map<String, Integer> getCacheSizes() {
+        return CacheRegistry.getCacheSizes();
     }
 
     /**
@@ -148,6 +301,18 @@ public class RangeSlider extends View {
         this.onSliderTouchListener = onSliderTouchListener;
     }
 
+    OnValueChangeListener getOnValueChangeListener() {
+        return onValueChangeListener;
+    }
+
+    long getLowValue() {
+        return lowValue;
+    }
+
+    long getHighValue() {
+        return highValue;
+    }
+
     public void setLineWidth(float lineWidth) {
         lineWidth = dpToPx(lineWidth);
         selectionPaint.setStrokeWidth(lineWidth);
@@ -157,6 +322,7 @@ public class RangeSlider extends View {
 
     public void setThumbRadius(float thumbRadius) {
         this.thumbRadius = dpToPx(thumbRadius);
+        updateLayout();
         ViewCompat.postInvalidateOnAnimation(this);
     }
 
@@ -168,17 +334,22 @@ public class RangeSlider extends View {
 
     public void setTextSize(float textSize) {
         labelTextPaint.setTextSize(dpToPx(textSize));
+        labelLayoutCache.invalidate();
+        countText = null;
+        updateLayout();
         ViewCompat.postInvalidateOnAnimation(this);
     }
 
     public void setLabelBorderWidth(float labelBorderWidth) {
         this.labelBorderWidth = dpToPx(labelBorderWidth);
         labelPaint.setStrokeWidth(this.labelBorderWidth);
+        updateLayout();
         ViewCompat.postInvalidateOnAnimation(this);
     }
 
     public void setLabelPadding(float labelPadding) {
         this.labelPadding = dpToPx(labelPadding);
+        updateLayout();
         ViewCompat.postInvalidateOnAnimation(this);
     }
 
@@ -194,29 +365,154 @@ public class RangeSlider extends View {
 
     public void setLabelTailHeight(float labelTailHeight) {
         this.labelTailHeight = dpToPx(labelTailHeight);
+        updateLayout();
         ViewCompat.postInvalidateOnAnimation(this);
     }
 
     public void setLabelGapHeight(float labelGapHeight) {
         this.labelGapHeight = dpToPx(labelGapHeight);
+        updateLayout();
         ViewCompat.postInvalidateOnAnimation(this);
     }
 
     public void setTextFormat(String textFormat) {
         this.textFormat = textFormat;
-        if ("time".equals(valueType)) {
-            dateTimeFormat.applyPattern(textFormat == null ? "" : textFormat);
+        labelTextFormatter.setTextFormat(textFormat);
+        labelLayoutCache.invalidate();
+        tickRuler.invalidate();
+        ViewCompat.postInvalidateOnAnimation(this);
+    }
+
+    /**
+     * Format of the count of dataset values in selected range, shown in the label next to the value.
+     * Count is not shown if null or empty, or if the format doesn't accept an integer.
+     */
+    public void setCountTextFormat(String countTextFormat) {
+        if (countTextFormat != null && !countTextFormat.isEmpty()) {
+            try {
+                // Checked once here, so drawing the label never fails on the format
+                String.format(countTextFormat, 0);
+            } catch (IllegalFormatException e) {
+                countTextFormat = null;
+            }
+        }
+        this.countTextFormat = countTextFormat;
+        splitCountTextFormat();
+        countText = null;
+        ViewCompat.postInvalidateOnAnimation(this);
+    }
+
+    /**
+     * Splits count text format around its only plain {@code %d}, so the count is appended instead of formatted.
+     */
+    private void splitCountTextFormat() {
+        countTextPrefix = null;
+        countTextSuffix = null;
+        if (countTextFormat == null) {
+            return;
         }
+        StringBuilder literal = new StringBuilder();
+        String before = null;
+        int length = countTextFormat.length();
+        for (int i = 0; i < length; i++) {
+            char c = countTextFormat.charAt(i);
+            if (c != '%') {
+                literal.append(c);
+                continue;
+            }
+            char next = i + 1 < length ? countTextFormat.charAt(i + 1) : 0;
+            if (next == '%') {
+                literal.append('%');
+            } else if (next == 'd' && before == null) {
+                before = literal.toString();
+                literal.setLength(0);
+            } else { // Flags, width, other conversions or a second %d
+                return;
+            }
+            i++;
+        }
+        if (before != null) {
+            countTextPrefix = before;
+            countTextSuffix = literal.toString();
+            if (countTextBuilder == null) {
+                countTextBuilder = new StringBuilder();
+            }
+        }
+    }
+
+    /**
+     * Sets values (in fixed-point representation, see {@link #toFixedPoint(double)}) which are counted
+     * if they are in selected range. The count is computed with two binary searches on every change,
+     * shown in the label and sent with value change events.
+     *
+     * @param dataset values, may be unsorted, null removes the dataset
+     */
+    public void setDataset(long[] dataset) {
+        if (dataset != null) {
+            dataset = dataset.clone();
+            Arrays.sort(dataset);
+        }
+        this.dataset = dataset;
+        countText = null;
+        fireValueChangeEvent(false);
         ViewCompat.postInvalidateOnAnimation(this);
     }
 
+    /**
+     * @return number of dataset values in selected range, or -1 if there is no dataset
+     */
+    int getInRangeCount() {
+        if (dataset == null) {
+            return -1;
+        }
+        long from = rangeEnabled ? lowValue : minValue;
+        long to = rangeEnabled ? highValue : lowValue;
+        return upperBound(dataset, to) - lowerBound(dataset, from);
+    }
+
+    /**
+     * @return index of the first element which is not less than the value
+     */
+    private static int lowerBound(long[] array, long value) {
+        int low = 0;
+        int high = array.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (array[mid] < value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * @return index of the first element which is greater than the value
+     */
+    private static int upperBound(long[] array, long value) {
+        int low = 0;
+        int high = array.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (array[mid] <= value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
     public void setLabelStyle(String labelStyle) {
         this.labelStyle = labelStyle == null ? LabelStyle.BUBBLE : LabelStyle.valueOf(labelStyle.toUpperCase());
+        updateLayout();
         ViewCompat.postInvalidateOnAnimation(this);
     }
 
     public void setRangeEnabled(boolean rangeEnabled) {
         this.rangeEnabled = rangeEnabled;
+        updateLayout();
         if (rangeEnabled) {
             if (highValue < lowValue) {
                 highValue = lowValue;
@@ -231,16 +527,192 @@ public class RangeSlider extends View {
         ViewCompat.postInvalidateOnAnimation(this);
     }
 
+    /**
+     * If enabled, two fingers drive low and high thumbs at once. Works only if range is enabled.
+     */
+    public void setMultiTouchEnabled(boolean multiTouchEnabled) {
+        this.multiTouchEnabled = multiTouchEnabled;
+    }
+
+    /**
+     * If enabled, the track shows a window of [min, max] which is zoomed in by long press or pinch
+     * and panned automatically when a dragged thumb comes close to an edge of the track.
+     * Pinch zooms instead of moving both thumbs, even if multi touch is enabled.
+     */
+    public void setViewportEnabled(boolean viewportEnabled) {
+        this.viewportEnabled = viewportEnabled;
+        if (viewportEnabled && gestureDetector == null) {
+            gestureDetector = new GestureDetector(getContext(), new GestureDetector.SimpleOnGestureListener() {
+                @Override
+                public boolean onDown(MotionEvent e) {
+                    return true;
+                }
+
+                @Override
+                public void onLongPress(MotionEvent e) {
+                    if (activeThumb != THUMB_NONE) {
+                        zoomViewport(e.getX(), LONG_PRESS_ZOOM);
+                    }
+                }
+            });
+            scaleGestureDetector = new ScaleGestureDetector(getContext(), new ScaleGestureDetector.SimpleOnScaleGestureListener() {
+                @Override
+                public boolean onScaleBegin(ScaleGestureDetector detector) {
+                    // Thumbs stay where they are until all fingers are up
+                    activeThumb = THUMB_NONE;
+                    return true;
+                }
+
+                @Override
+                public boolean onScale(ScaleGestureDetector detector) {
+                    zoomViewport(detector.getFocusX(), detector.getScaleFactor());
+                    return true;
+                }
+            });
+        }
+        if (!viewportEnabled) {
+            viewport.reset();
+        }
+        ViewCompat.postInvalidateOnAnimation(this);
+    }
+
+    /**
+     * If enabled, the dragged thumb is drawn where the finger is predicted to be when the frame is shown.
+     * Values and events still use only real touch positions.
+     */
+    public void setPredictiveTouchEnabled(boolean predictiveTouchEnabled) {
+        touchPredictor = predictiveTouchEnabled ? new TouchPredictor(PREDICTION_HORIZON_MILLIS) : null;
+    }
+
+    /**
+     * Makes label layouts to be built on the calling thread, so draw budgets can be measured deterministically.
+     */
+    void setSynchronousLabelLayout(boolean synchronous) {
+        labelLayoutCache.setSynchronous(synchronous);
+    }
+
+    TouchPredictor getTouchPredictor() {
+        return touchPredictor;
+    }
+
     public void setValueType(String valueType) {
         this.valueType = valueType;
-        if ("time".equals(valueType)) {
-            dateTimeFormat.applyPattern(textFormat == null ? "" : textFormat);
-        }
+        labelTextFormatter.setValueType(valueType);
+        labelLayoutCache.invalidate();
+        tickRuler.invalidate();
+        updateCalendarBoundaries();
+        ViewCompat.postInvalidateOnAnimation(this);
+    }
+
+    /**
+     * Makes a time slider snap to local calendar units instead of a fixed step.
+     *
+     * @param calendarStep one of hour, day, week, month and year, or null to snap by step
+     */
+    public void setCalendarStep(String calendarStep) {
+        this.calendarStep = calendarStep == null ? null : calendarStep.toLowerCase();
+        updateCalendarBoundaries();
         ViewCompat.postInvalidateOnAnimation(this);
     }
 
+    /**
+     * Time zone of calendar snapping and time labels.
+     *
+     * @param timeZone time zone ID, or null for the device time zone
+     */
+    public void setTimeZone(String timeZone) {
+        this.timeZone = timeZone == null ? null : TimeZone.getTimeZone(timeZone);
+        resolveTimeZone();
+    }
+
+    private void resolveTimeZone() {
+        resolvedTimeZone = timeZone == null ? TimeZone.getDefault() : timeZone;
+        labelTextFormatter.setTimeZone(resolvedTimeZone);
+        labelLayoutCache.invalidate();
+        tickRuler.invalidate();
+        updateCalendarBoundaries();
+        ViewCompat.postInvalidateOnAnimation(this);
+    }
+
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        getContext().registerReceiver(timeZoneReceiver, new IntentFilter(Intent.ACTION_TIMEZONE_CHANGED));
+        if (timeZone == null && !resolvedTimeZone.getID().equals(TimeZone.getDefault().getID())) { // Changed while detached
+            resolveTimeZone();
+        }
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        getContext().unregisterReceiver(timeZoneReceiver);
+        super.onDetachedFromWindow();
+    }
+
+    /**
+     * Builds the boundary table when min, max, unit or time zone change, so touches and drawing only search it.
+     */
+    private void updateCalendarBoundaries() {
+        if (calendarStep == null || !"time".equals(valueType) || precision != 0 ||
+                minValue == Long.MIN_VALUE || maxValue == Long.MAX_VALUE) {
+            calendarBoundaries = null;
+            return;
+        }
+        if (calendarBoundaries != null && calendarBoundaries.matches(minValue, maxValue, calendarStep, resolvedTimeZone.getID())) {
+            return;
+        }
+        calendarBoundaries = CalendarBoundaries.create(minValue, maxValue, calendarStep, resolvedTimeZone);
+    }
+
+    /**
+     * @return boundaries to snap to, or null if values snap by step
+     */
+    private CalendarBoundaries getCalendarBoundaries() {
+        return calendarBoundaries != null && calendarBoundaries.isAvailable() ? calendarBoundaries : null;
+    }
+
+    /**
+     * @return the closest value below the given one which the low thumb can take
+     */
+    private long previousValue(long value) {
+        CalendarBoundaries boundaries = getCalendarBoundaries();
+        return boundaries == null ? value - step : boundaries.previous(value);
+    }
+
+    /**
+     * @return the closest value above the given one which the high thumb can take
+     */
+    private long nextValue(long value) {
+        CalendarBoundaries boundaries = getCalendarBoundaries();
+        return boundaries == null ? value + step : boundaries.next(value);
+    }
+
     public void setGravity(String gravity) {
         this.gravity = gravity == null ? Gravity.TOP : Gravity.valueOf(gravity.toUpperCase());
+        updateLayout();
+        ViewCompat.postInvalidateOnAnimation(this);
+    }
+
+    public void setTicksEnabled(boolean ticksEnabled) {
+        this.ticksEnabled = ticksEnabled;
+        updateLayout();
+        ViewCompat.postInvalidateOnAnimation(this);
+    }
+
+    public void setRulerLabelsEnabled(boolean rulerLabelsEnabled) {
+        tickRuler.setLabelsEnabled(rulerLabelsEnabled);
+        updateLayout();
+        ViewCompat.postInvalidateOnAnimation(this);
+    }
+
+    public void setRulerTextSize(float textSize) {
+        tickRuler.setTextSize(dpToPx(textSize));
+        updateLayout();
+        ViewCompat.postInvalidateOnAnimation(this);
+    }
+
+    public void setTickColor(String color) {
+        tickRuler.setColor(Utils.parseRgba(color));
         ViewCompat.postInvalidateOnAnimation(this);
     }
 
@@ -271,6 +743,7 @@ public class RangeSlider extends View {
 
     public void setLabelTextColor(String color) {
         labelTextPaint.setColor(Utils.parseRgba(color));
+        labelLayoutCache.invalidate();
         ViewCompat.postInvalidateOnAnimation(this);
     }
 
@@ -279,9 +752,134 @@ public class RangeSlider extends View {
         ViewCompat.postInvalidateOnAnimation(this);
     }
 
+    /**
+     * Sets number of decimal places of values.
+     * All values are kept as longs scaled by {@code 10^precision}, so touch and draw math stays in integers.
+     * Precision is lowered while min or max multiplied by {@code 10^precision} doesn't fit into {@link #MAX_FIXED_POINT}.
+     */
+    public void setPrecision(int precision) {
+        requestedPrecision = (int) Utils.clamp(precision, 0, MAX_PRECISION);
+        applyPrecision();
+    }
+
+    private void applyPrecision() {
+        double magnitude = 0;
+        if (!Double.isNaN(minDecimal)) {
+            magnitude = Math.abs(minDecimal);
+        }
+        if (!Double.isNaN(maxDecimal)) {
+            magnitude = Math.max(magnitude, Math.abs(maxDecimal));
+        }
+        int precision = requestedPrecision;
+        while (precision > 0 && magnitude * Math.pow(10, precision) > MAX_FIXED_POINT) {
+            precision--;
+        }
+        if (precision == this.precision) {
+            return;
+        }
+        long oldScale = scale;
+        this.precision = precision;
+        scale = 1;
+        for (int i = 0; i < precision; i++) {
+            scale *= 10;
+        }
+        labelTextFormatter.setPrecision(precision, scale);
+        labelLayoutCache.invalidate();
+        tickRuler.invalidate();
+
+        minValue = Double.isNaN(minDecimal) ? rescale(minValue, oldScale) : toFixedPoint(minDecimal);
+        maxValue = Double.isNaN(maxDecimal) ? rescale(maxValue, oldScale) : toFixedPoint(maxDecimal);
+        step = Math.max(1, Double.isNaN(stepDecimal) ? rescale(step, oldScale) : toFixedPoint(stepDecimal));
+        lowValue = Double.isNaN(lowDecimal) ? rescale(lowValue, oldScale) : toFixedPoint(lowDecimal);
+        highValue = Double.isNaN(highDecimal) ? rescale(highValue, oldScale) : toFixedPoint(highDecimal);
+        lowValue = Utils.clamp(lowValue, minValue, maxValue);
+        highValue = Utils.clamp(highValue, minValue, maxValue);
+        if (dataset != null) {
+            for (int i = 0; i < dataset.length; i++) {
+                dataset[i] = rescale(dataset[i], oldScale);
+            }
+        }
+        updateViewportBounds();
+        updateCalendarBoundaries();
+        ViewCompat.postInvalidateOnAnimation(this);
+    }
+
+    /**
+     * Converts a decimal value received from JS to the internal fixed-point representation.
+     */
+    long toFixedPoint(double value) {
+        // Never saturate to Long.MIN_VALUE or Long.MAX_VALUE, they mean that a value is not set
+        return Math.round(Math.max(-MAX_FIXED_POINT, Math.min(MAX_FIXED_POINT, value * scale)));
+    }
+
+    /**
+     * Converts an internal fixed-point value to the decimal value sent to JS.
+     * Dividing by a power of ten gives the double closest to the exact decimal.
+     */
+    double fromFixedPoint(long value) {
+        return precision == 0 ? value : value / (double) scale;
+    }
+
+    private long rescale(long value, long oldScale) {
+        if (value == Long.MIN_VALUE || value == Long.MAX_VALUE) { // Not set yet
+            return value;
+        }
+        if (scale < oldScale) {
+            return value / (oldScale / scale);
+        }
+        long factor = scale / oldScale;
+        if (Math.abs(value) > MAX_FIXED_POINT / factor) {
+            return value < 0 ? -MAX_FIXED_POINT : MAX_FIXED_POINT;
+        }
+        return value * factor;
+    }
+
+    public void setMinValue(double minValue) {
+        minDecimal = minValue;
+        applyPrecision();
+        setMinValue(toFixedPoint(minValue));
+    }
+
+    public void setMaxValue(double maxValue) {
+        maxDecimal = maxValue;
+        applyPrecision();
+        setMaxValue(toFixedPoint(maxValue));
+    }
+
+    public void setStep(double step) {
+        stepDecimal = step;
+        setStep(toFixedPoint(step));
+    }
+
+    public void setInitialLowValue(double lowValue) {
+        if (!initialLowValueSet) {
+            setLowValue(lowValue);
+        }
+        initialLowValueSet = true;
+    }
+
+    public void setLowValue(double lowValue) {
+        lowDecimal = lowValue;
+        setLowValue(toFixedPoint(lowValue));
+    }
+
+    public void setInitialHighValue(double highValue) {
+        if (!initialHighValueSet) {
+            setHighValue(highValue);
+        }
+        initialHighValueSet = true;
+    }
+
+    public void setHighValue(double highValue) {
+        highDecimal = highValue;
+        setHighValue(toFixedPoint(highValue));
+    }
+
     public void setMinValue(long minValue) {
         if (minValue <= maxValue) {
             this.minValue = minValue;
+            updateViewportBounds();
+            updateCalendarBoundaries();
             fitToMinMax();
         }
         ViewCompat.postInvalidateOnAnimation(this);
@@ -290,6 +888,8 @@ public class RangeSlider extends View {
     public void setMaxValue(long maxValue) {
         if (maxValue > minValue) {
             this.maxValue = maxValue;
+            updateViewportBounds();
+            updateCalendarBoundaries();
             fitToMinMax();
         }
         ViewCompat.postInvalidateOnAnimation(this);
@@ -304,7 +904,7 @@ public class RangeSlider extends View {
     }
 
     public void setStep(long step) {
-        this.step = step;
+        this.step = Math.max(1, step);
     }
 
     public void setInitialLowValue(long lowValue) {
@@ -321,7 +921,7 @@ public class RangeSlider extends View {
      */
     public void setLowValue(long lowValue) {
         long oldLow = this.lowValue;
-        this.lowValue = Utils.clamp(lowValue, minValue, rangeEnabled ? highValue - step : maxValue);
+        this.lowValue = Utils.clamp(lowValue, minValue, rangeEnabled ? previousValue(highValue) : maxValue);
         checkAndFireValueChangeEvent(oldLow, highValue, false);
         ViewCompat.postInvalidateOnAnimation(this);
     }
@@ -340,7 +940,7 @@ public class RangeSlider extends View {
      */
     public void setHighValue(long highValue) {
         long oldHigh = this.highValue;
-        this.highValue = Utils.clamp(highValue, lowValue + step, maxValue);
+        this.highValue = Utils.clamp(highValue, nextValue(lowValue), maxValue);
         checkAndFireValueChangeEvent(lowValue, oldHigh, false);
         ViewCompat.postInvalidateOnAnimation(this);
     }
@@ -354,45 +954,204 @@ public class RangeSlider extends View {
 
         long oldLow = this.lowValue;
         long oldHigh = this.highValue;
+        if (viewportEnabled) {
+            scaleGestureDetector.onTouchEvent(event);
+            gestureDetector.onTouchEvent(event);
+        }
 
-        switch (event.getAction()) {
+        switch (event.getActionMasked()) {
             case MotionEvent.ACTION_DOWN:
                 handleTouchDown(getValueForPosition(event.getX()), event.getY());
+                prepareLabel();
+                if (touchPredictor != null) {
+                    touchPredictor.reset();
+                    touchPredictor.addSample(event.getEventTime(), event.getX());
+                }
                 if (onSliderTouchListener != null) {
                     onSliderTouchListener.onTouchStart();
                 }
                 break;
+            case MotionEvent.ACTION_POINTER_DOWN:
+                if (multiTouchEnabled && rangeEnabled && !viewportEnabled && event.getPointerCount() == 2) {
+                    handleSecondPointerDown(event);
+                    prepareLabel();
+                }
+                break;
             case MotionEvent.ACTION_MOVE:
-                long pointerValue = getValueForPosition(event.getX());
-                handleTouchMove(pointerValue);
+                if (activeThumb == THUMB_BOTH) {
+                    handleTwoPointerMove(event);
+                } else if (activeThumb != THUMB_NONE) {
+                    long pointerValue = getValueForPosition(event.getX());
+                    handleTouchMove(pointerValue);
+                    lastTouchX = event.getX();
+                    scheduleAutoPan();
+                    if (touchPredictor != null) {
+                        for (int h = 0; h < event.getHistorySize(); h++) {
+                            touchPredictor.addSample(event.getHistoricalEventTime(h), event.getHistoricalX(h));
+                        }
+                        touchPredictor.addSample(event.getEventTime(), event.getX());
+                        touchPredictor.commitPrediction();
+                    }
+                }
+                break;
+            case MotionEvent.ACTION_POINTER_UP:
+                if (activeThumb == THUMB_BOTH) {
+                    handleSecondPointerUp(event.getPointerId(event.getActionIndex()));
+                }
                 break;
             case MotionEvent.ACTION_UP:
+            case MotionEvent.ACTION_CANCEL:
                 activeThumb = THUMB_NONE;
+                removeCallbacks(autoPanRunnable);
+                autoPanScheduled = false;
+                if (touchPredictor != null) {
+                    touchPredictor.reset();
+                }
                 if (onSliderTouchListener != null) {
                     onSliderTouchListener.onTouchEnd();
                 }
                 break;
         }
-        ViewCompat.postInvalidateOnAnimation(this);
-        checkAndFireValueChangeEvent(oldLow, oldHigh, true);
+        prefetchLabels();
+        invalidateContent();
+        onUserValueChange(oldLow, oldHigh);
         return true;
     }
 
+    /**
+     * @return value shown in the label while a thumb is dragged
+     */
+    private long getLabelValue() {
+        return activeThumb == THUMB_LOW ? lowValue : highValue;
+    }
+
+    /**
+     * Builds the label layout of the touched value, so drawing while dragging only picks up finished layouts.
+     */
+    private void prepareLabel() {
+        if (labelStyle == LabelStyle.NONE || activeThumb == THUMB_NONE) {
+            return;
+        }
+        labelLayoutCache.buildNow(getLabelValue(), labelTextFormatter, labelTextPaint);
+    }
+
+    /**
+     * Schedules label layouts around the dragged value. Called after the value changes, not from onDraw,
+     * so frames of a drag neither allocate nor queue work.
+     */
+    private void prefetchLabels() {
+        if (labelStyle == LabelStyle.NONE || activeThumb == THUMB_NONE) {
+            return;
+        }
+        long labelValue = getLabelValue();
+        CalendarBoundaries boundaries = getCalendarBoundaries();
+        if (boundaries != null) {
+            labelLayoutCache.prefetch(labelValue, boundaries, labelTextFormatter, labelTextPaint);
+        } else {
+            labelLayoutCache.prefetch(labelValue, step, minValue, maxValue, labelTextFormatter, labelTextPaint);
+        }
+    }
+
+    private void onUserValueChange(long oldLow, long oldHigh) {
+        if (oldLow != lowValue) {
+            lowDecimal = Double.NaN;
+        }
+        if (oldHigh != highValue) {
+            highDecimal = Double.NaN;
+        }
+        checkAndFireValueChangeEvent(oldLow, oldHigh, true);
+    }
+
+    /**
+     * Should be called when min, max or the track change, touches and drawing only map values through the viewport.
+     */
+    private void updateViewportBounds() {
+        if (minValue == Long.MIN_VALUE || maxValue == Long.MAX_VALUE) {
+            return;
+        }
+        viewport.setBounds(minValue, maxValue, thumbRadius, trackWidth);
+    }
+
+    private void zoomViewport(float focusX, double factor) {
+        if (viewport.zoom(focusX, factor, MIN_VISIBLE_STEPS * step)) {
+            invalidateContent();
+        }
+    }
+
+    /**
+     * Invalidates only the band with the track, thumbs and the label, used while touching and panning.
+     */
+    private void invalidateContent() {
+        int top = (int) contentOffsetY;
+        int bottom = (int) Math.ceil(contentOffsetY + contentHeight);
+        ViewCompat.postInvalidateOnAnimation(this, 0, top, getWidth(), bottom);
+    }
+
+    private void scheduleAutoPan() {
+        if (viewportEnabled && viewport.isZoomed() && !autoPanScheduled) {
+            autoPanScheduled = true;
+            ViewCompat.postOnAnimation(this, autoPanRunnable);
+        }
+    }
+
+    /**
+     * Pans the viewport every frame while a thumb is dragged close to an edge of the track.
+     * The thumb is moved with the window, as if the finger moved over the values.
+     */
+    private void autoPan() {
+        autoPanScheduled = false;
+        if (!viewportEnabled || activeThumb == THUMB_NONE || activeThumb == THUMB_BOTH) {
+            return;
+        }
+        float edge = 2 * thumbRadius;
+        float start = thumbRadius + edge;
+        float end = getWidth() - thumbRadius - edge;
+        float depth;
+        if (lastTouchX < start) {
+            depth = Math.max(-1, (lastTouchX - start) / edge);
+        } else if (lastTouchX > end) {
+            depth = Math.min(1, (lastTouchX - end) / edge);
+        } else {
+            return;
+        }
+        long span = viewport.getWindowMax() - viewport.getWindowMin();
+        long delta = (long) (span * AUTO_PAN_SPEED * depth);
+        if (delta == 0) {
+            delta = depth > 0 ? 1 : -1;
+        }
+        if (viewport.pan(delta) == 0) {
+            return;
+        }
+        long oldLow = lowValue;
+        long oldHigh = highValue;
+        handleTouchMove(getValueForPosition(lastTouchX));
+        prefetchLabels();
+        onUserValueChange(oldLow, oldHigh);
+        invalidateContent();
+        scheduleAutoPan();
+    }
+
     private void checkAndFireValueChangeEvent(long oldLow, long oldHigh, boolean fromUser) {
+        if (oldLow == lowValue && oldHigh == highValue) {
+            return;
+        }
+        fireValueChangeEvent(fromUser);
+    }
+
+    private void fireValueChangeEvent(boolean fromUser) {
         if (onValueChangeListener == null ||
-                (oldLow == lowValue && oldHigh == highValue) ||
                 minValue == Long.MIN_VALUE ||
                 maxValue == Long.MAX_VALUE) {
 
             return;
         }
 
-        onValueChangeListener.onValueChanged(lowValue, highValue, fromUser);
+        onValueChangeListener.onValueChanged(lowValue, highValue, getInRangeCount(), fromUser);
     }
 
     private void handleTouchDown(long pointerValue, float y) {
         this.attemptClaimDrag();
-        if (rangeEnabled && y > 3 * thumbRadius) {
+        if (rangeEnabled && y - contentOffsetY > 3 * thumbRadius) {
             activeThumb = THUMB_MIDDLE;
         } else if (
             !rangeEnabled ||
@@ -409,7 +1168,19 @@ public class RangeSlider extends View {
 
     private void handleTouchMove(long pointerValue) {
         this.attemptClaimDrag();
-        if (activeThumb == THUMB_MIDDLE) {
+        CalendarBoundaries boundaries = getCalendarBoundaries();
+        if (activeThumb == THUMB_MIDDLE && boundaries != null) {
+            // Move both thumbs by the same number of boundaries, a fixed distance would leave the grid
+            int shift = boundaries.nearestIndex(pointerValue) - boundaries.nearestIndex((highValue + lowValue) / 2);
+            int lowIndex = boundaries.nearestIndex(lowValue);
+            int highIndex = boundaries.nearestIndex(highValue);
+            shift = Math.max(-lowIndex, Math.min(boundaries.getCount() - 1 - highIndex, shift));
+            if (shift == 0) {
+                return;
+            }
+            lowValue = boundaries.offset(lowValue, shift);
+            highValue = boundaries.offset(highValue, shift);
+        } else if (activeThumb == THUMB_MIDDLE) {
             long midValue = pointerValue;
             long oldHigh = highValue;
             long oldLow = lowValue;
@@ -433,23 +1204,117 @@ public class RangeSlider extends View {
         } else if (!rangeEnabled) {
             lowValue = pointerValue;
         } else if (activeThumb == THUMB_LOW) {
-            lowValue = Utils.clamp(pointerValue, minValue, highValue - step);
+            lowValue = Utils.clamp(pointerValue, minValue, previousValue(highValue));
         } else if (activeThumb == THUMB_HIGH) {
-            highValue = Utils.clamp(pointerValue, lowValue + step, maxValue);
+            highValue = Utils.clamp(pointerValue, nextValue(lowValue), maxValue);
+        }
+    }
+
+    private void handleSecondPointerDown(MotionEvent event) {
+        this.attemptClaimDrag();
+        int left = event.getX(0) <= event.getX(1) ? 0 : 1;
+        lowPointerId = event.getPointerId(left);
+        highPointerId = event.getPointerId(1 - left);
+        activeThumb = THUMB_BOTH;
+        handleTwoPointerMove(event);
+    }
+
+    /**
+     * Moves both thumbs at once, so a single value change event is fired for both of them.
+     */
+    private void handleTwoPointerMove(MotionEvent event) {
+        int lowIndex = event.findPointerIndex(lowPointerId);
+        int highIndex = event.findPointerIndex(highPointerId);
+        if (lowIndex < 0 || highIndex < 0) {
+            return;
+        }
+        this.attemptClaimDrag();
+        long newLow = Utils.clamp(getValueForPosition(event.getX(lowIndex)), minValue, previousValue(maxValue));
+        highValue = Utils.clamp(getValueForPosition(event.getX(highIndex)), nextValue(newLow), maxValue);
+        lowValue = newLow;
+    }
+
+    /**
+     * The remaining pointer keeps dragging its own thumb.
+     */
+    private void handleSecondPointerUp(int pointerId) {
+        if (pointerId == lowPointerId) {
+            activeThumb = THUMB_HIGH;
+        } else if (pointerId == highPointerId) {
+            activeThumb = THUMB_LOW;
         }
     }
 
     private long getValueForPosition(float position) {
-        if (position <= thumbRadius) {
-            return minValue;
-        } else if (position >= getWidth() - thumbRadius) {
+        long value = viewport.valueAt(position);
+        CalendarBoundaries boundaries = getCalendarBoundaries();
+        if (boundaries != null) {
+            return boundaries.nearest(value);
+        }
+        if (value == maxValue) {
             return maxValue;
-        } else {
-            double availableWidth = getWidth() - 2 * thumbRadius;
-            position -= thumbRadius;
-            long relativePosition = (long) ((maxValue - minValue) * position / availableWidth);
-            return minValue + relativePosition - relativePosition % step;
         }
+        long relativePosition = value - minValue;
+        return minValue + relativePosition - relativePosition % step;
+    }
+
+    /**
+     * Inverse of {@link #getValueForPosition(float)}, used for drawing and by instrumented tests.
+     */
+    float getPositionForValue(long value) {
+        return viewport.positionOf(value);
+    }
+
+    /**
+     * Y coordinate where touches move the closest thumb instead of the scroller.
+     */
+    float getThumbTouchY() {
+        return contentOffsetY + thumbRadius;
+    }
+
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+        updateLayout();
+    }
+
+    /**
+     * Computes geometry which doesn't depend on values, so onDraw only has to place thumbs and the label.
+     * Content is offset vertically according to gravity if the view is taller than the content.
+     */
+    private void updateLayout() {
+        labelTextHeight = getLabelTextHeight();
+        labelHeight = labelStyle == LabelStyle.NONE ? 0 : 2 * labelBorderWidth + labelTailHeight + labelTextHeight + 2 * labelPadding;
+        labelBaseline = labelBorderWidth + labelPadding - labelTextPaint.ascent();
+        float labelAndGapHeight = labelStyle == LabelStyle.NONE ? 0 : labelHeight + labelGapHeight;
+
+        trackY = labelAndGapHeight + thumbRadius + thumbRadius / 2;
+        trackWidth = getWidth() - 2 * thumbRadius;
+
+        // Bottom of everything onDraw draws: thumbs with their border, the scroller and ruler labels below them
+        float thumbBottom = trackY + thumbRadius * 3 / 4 + thumbBorderPaint.getStrokeWidth() / 2;
+        contentHeight = thumbBottom;
+        if (rangeEnabled) {
+            contentHeight = Math.max(contentHeight, 5 * thumbRadius);
+        }
+        // Ruler labels go below thumbs and the scroller, which would cover them otherwise
+        rulerLabelTop = Math.max(trackY + tickRuler.getLabelOffset(), contentHeight + tickRuler.getLabelGap());
+        if (ticksEnabled) {
+            contentHeight = Math.max(contentHeight, rulerLabelTop + tickRuler.getLabelHeight());
+        }
+
+        float freeHeight = getHeight() - contentHeight;
+        contentOffsetY = 0;
+        if (freeHeight > 0) {
+            if (gravity == Gravity.BOTTOM) {
+                contentOffsetY = freeHeight;
+            } else if (gravity == Gravity.CENTER) {
+                contentOffsetY = freeHeight / 2;
+            } else {
+                contentOffsetY = Math.min(topGravityOffset, freeHeight);
+            }
+        }
+        updateViewportBounds();
     }
 
     @Override
@@ -458,19 +1323,13 @@ public class RangeSlider extends View {
         if (minValue == Long.MIN_VALUE || maxValue == Long.MAX_VALUE) { //Values are not set yet, don't draw anything
             return;
         }
-        float labelTextHeight = getLabelTextHeight();
-        float labelHeight = labelStyle == LabelStyle.NONE ? 0 : 2 * labelBorderWidth + labelTailHeight + labelTextHeight + 2 * labelPadding;
-        float labelAndGapHeight = labelStyle == LabelStyle.NONE ? 0 : labelHeight + labelGapHeight;
-
-        float drawingHeight = labelAndGapHeight + 2 * thumbRadius;
-        float height = getHeight();
-        if (height > drawingHeight) {
-            canvas.translate(0, dpToPx(5));
+        if (contentOffsetY != 0) {
+            canvas.translate(0, contentOffsetY);
         }
 
-        float cy = labelAndGapHeight + thumbRadius + thumbRadius / 2;
+        float cy = trackY;
         float width = getWidth();
-        float availableWidth = width - 2 * thumbRadius;
+        float availableWidth = trackWidth;
 
         // Draw the blank line
         canvas.drawLine(thumbRadius, cy, width - thumbRadius, cy, blankPaint);
@@ -479,8 +1338,26 @@ public class RangeSlider extends View {
         canvas.drawLine(thumbRadius / 2, cy -  2 * thumbRadius / 3, thumbRadius / 2, cy +  2 * thumbRadius / 3, thumbBorderPaint);
         canvas.drawLine(width - thumbRadius / 2, cy -  2 * thumbRadius / 3, width - thumbRadius / 2, cy +  2 * thumbRadius / 3, thumbBorderPaint);
 
-        float lowX = thumbRadius + availableWidth * (lowValue - minValue) / (maxValue - minValue);
-        float highX = thumbRadius + availableWidth * (highValue - minValue) / (maxValue - minValue);
+        if (ticksEnabled) {
+            tickRuler.draw(canvas, minValue, viewport.getWindowMin(), viewport.getWindowMax(), step, thumbRadius, availableWidth, cy, rulerLabelTop);
+        }
+
+        // Thumbs outside of the viewport are pinned to its edges
+        float lowX = Math.max(thumbRadius, Math.min(width - thumbRadius, getPositionForValue(lowValue)));
+        float highX = Math.max(thumbRadius, Math.min(width - thumbRadius, getPositionForValue(highValue)));
+
+        if (touchPredictor != null && touchPredictor.hasPrediction()) {
+            float offset = touchPredictor.getPredictedOffset();
+            if (activeThumb == THUMB_LOW) {
+                lowX = Math.max(thumbRadius, Math.min(rangeEnabled ? highX : width - thumbRadius, lowX + offset));
+            } else if (activeThumb == THUMB_HIGH) {
+                highX = Math.max(lowX, Math.min(width - thumbRadius, highX + offset));
+            } else if (activeThumb == THUMB_MIDDLE) {
+                offset = Math.max(thumbRadius - lowX, Math.min(width - thumbRadius - highX, offset));
+                lowX += offset;
+                highX += offset;
+            }
+        }
 
         // Draw the selected line
         if (rangeEnabled) {
@@ -501,8 +1378,19 @@ public class RangeSlider extends View {
             return;
         }
 
-        String text = formatLabelText(activeThumb == THUMB_LOW ? lowValue : highValue);
-        float labelTextWidth = labelTextPaint.measureText(text);
+        long labelValue = getLabelValue();
+        // Text is shaped in background for values around the thumb, until the exact layout is ready
+        // the closest one is shown. There is none only if layouts were dropped during the touch.
+        LabelLayoutCache.LabelLayout textLayout = labelLayoutCache.get(labelValue);
+        if (textLayout == null) {
+            textLayout = labelLayoutCache.getNearest(labelValue);
+        }
+        if (textLayout == null) {
+            textLayout = labelLayoutCache.buildNow(labelValue, labelTextFormatter, labelTextPaint);
+        }
+        float valueTextWidth = textLayout.width;
+        String countText = getCountText();
+        float labelTextWidth = countText == null ? valueTextWidth : valueTextWidth + labelPadding + countTextWidth;
         float labelWidth = labelTextWidth + 2 * labelPadding + 2 * labelBorderWidth;
         float cx = activeThumb == THUMB_LOW ? lowX : highX;
 
@@ -543,11 +1431,16 @@ public class RangeSlider extends View {
         preparePath(cx, y, left, top, right, bottom, labelTailHeight - labelBorderWidth);
         canvas.drawPath(labelPath, labelPaint);
 
-        canvas.drawText(text, cx - labelTextWidth / 2 + overflowOffset, labelBorderWidth + labelPadding - labelTextPaint.ascent(), labelTextPaint);
+        float textLeft = cx - labelTextWidth / 2 + overflowOffset;
+        textLayout.draw(canvas, textLeft, labelBorderWidth + labelPadding);
+        if (countText != null) {
+            canvas.drawText(countText, textLeft + valueTextWidth + labelPadding, labelBaseline, labelTextPaint);
+        }
     }
 
     private void drawThumb(Canvas canvas, float x, float y) {
-        Path path = new Path();
+        Path path = thumbPath;
+        path.reset();
         path.moveTo(x - thumbRadius / 2, y - thumbRadius * 3 / 4);
         path.rLineTo(0, thumbRadius * 3 / 2);
         path.rLineTo(thumbRadius, 0);
@@ -561,11 +1454,12 @@ public class RangeSlider extends View {
     private void drawScroller(Canvas canvas, float startX, float endX, float y) {
 
         canvas.save();
-        canvas.drawRect(new RectF(startX - thumbRadius / 2, y, endX + thumbRadius / 2, y + thumbRadius * 2), blankPaint);
+        scrollerRect.set(startX - thumbRadius / 2, y, endX + thumbRadius / 2, y + thumbRadius * 2);
+        canvas.drawRect(scrollerRect, blankPaint);
 
         float midX = (startX + endX)/ 2;
         float midY = y + thumbRadius;
-        float dx = dpToPx(3);
+        float dx = scrollerGripSpacing;
 
 //        CGContextMoveToPoint(context, startX -_thumbRadius/2, y + _thumbRadius);
 //        CGContextAddLineToPoint(context, startX -_thumbRadius/2, y + 3 * _thumbRadius);
@@ -605,30 +1499,49 @@ public class RangeSlider extends View {
         return TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP, dp, getResources().getDisplayMetrics());
     }
 
+    /**
+     * Count text is formatted and measured again only when the count changes.
+     *
+     * @return formatted count of dataset values in selected range, or null if it shouldn't be shown
+     */
+    private String getCountText() {
+        if (dataset == null || countTextFormat == null || countTextFormat.isEmpty()) {
+            return null;
+        }
+        int count = getInRangeCount();
+        if (countText == null || count != cachedCount) {
+            cachedCount = count;
+            if (countTextPrefix != null) {
+                countTextBuilder.setLength(0);
+                countText = countTextBuilder.append(countTextPrefix).append(count).append(countTextSuffix).toString();
+            } else {
+                countText = String.format(countTextFormat, count);
+            }
+            countTextWidth = labelTextPaint.measureText(countText);
+        }
+        return countText;
+    }
+
     private float getLabelTextHeight() {
         return labelTextPaint.descent() - labelTextPaint.ascent();
     }
 
     /**
      * This method formats label text for selected value.
-     * Change this method if you need more complex formatting.
+     * Change {@link LabelTextFormatter#format(long)} if you need more complex formatting.
      *
      * @param value
      * @return formatted text
      */
     private String formatLabelText(long value) {
-        if ("number".equals(valueType)) {
-            return String.format(textFormat, value);
-        } else if ("time".equals(valueType)) {
-            dateTime.setTime(value);
-            return dateTimeFormat.format(dateTime);
-        } else { // For other formatting methods, add cases here
-            return "";
-        }
+        return labelTextFormatter.format(value);
     }
 
     public interface OnValueChangeListener {
-        void onValueChanged(long lowValue, long highValue, boolean fromUser);
+        /**
+         * @param inRangeCount number of dataset values in selected range, or -1 if there is no dataset
+         */
+        void onValueChanged(long lowValue, long highValue, int inRangeCount, boolean fromUser);
     }
 
     public interface OnSliderTouchListener {
@@ -17,6 +17,7 @@ public class RangeSliderPackage implements ReactPackage {
 
     @Override
     public List<ViewManager> createViewManagers(ReactApplicationContext reactContext) {
+        CacheRegistry.register(reactContext);
         List<ViewManager> viewManagers = new ArrayList<>();
         viewManagers.add(new RangeSliderViewManager());
         return viewManagers;
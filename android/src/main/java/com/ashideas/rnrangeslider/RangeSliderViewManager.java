@@ -1,6 +1,7 @@
 package com.ashideas.rnrangeslider;
 
 import com.facebook.react.bridge.Arguments;
+import com.facebook.react.bridge.ReadableArray;
 import com.facebook.react.bridge.WritableMap;
 import com.facebook.react.common.MapBuilder;
 import com.facebook.react.uimanager.SimpleViewManager;
@@ -19,6 +20,8 @@ public class RangeSliderViewManager extends SimpleViewManager<RangeSlider> {
     private static final String ON_TOUCH_END_EVENT_NAME = "onSliderTouchEnd";
     private static final String REACT_CLASS = "RangeSlider";
 
+    private static final int COMMAND_SET_DATASET = 1;
+
     @Override
     public String getName() {
         return REACT_CLASS;
@@ -34,6 +37,21 @@ public class RangeSliderViewManager extends SimpleViewManager<RangeSlider> {
         view.setRangeEnabled(enabled);
     }
 
+    @ReactProp(name = "multiTouchEnabled")
+    public void setMultiTouchEnabled(RangeSlider view, boolean enabled) {
+        view.setMultiTouchEnabled(enabled);
+    }
+
+    @ReactProp(name = "viewportEnabled")
+    public void setViewportEnabled(RangeSlider view, boolean enabled) {
+        view.setViewportEnabled(enabled);
+    }
+
+    @ReactProp(name = "predictiveTouchEnabled")
+    public void setPredictiveTouchEnabled(RangeSlider view, boolean enabled) {
+        view.setPredictiveTouchEnabled(enabled);
+    }
+
     @ReactProp(name = "valueType")
     public void setValueType(RangeSlider view, String valueType) {
         view.setValueType(valueType);
@@ -46,37 +64,42 @@ public class RangeSliderViewManager extends SimpleViewManager<RangeSlider> {
 
     @ReactProp(name = "min")
     public void setMin(RangeSlider view, double min) {
-        view.setMinValue((long) min);
+        view.setMinValue(min);
     }
 
     @ReactProp(name = "max")
     public void setMax(RangeSlider view, double max) {
-        view.setMaxValue((long) max);
+        view.setMaxValue(max);
+    }
+
+    @ReactProp(name = "precision")
+    public void setPrecision(RangeSlider view, int precision) {
+        view.setPrecision(precision);
     }
 
     @ReactProp(name = "step")
     public void setStep(RangeSlider view, double step) {
-        view.setStep((long) step);
+        view.setStep(step);
     }
 
     @ReactProp(name = "highValue")
     public void setHighValue(RangeSlider view, double value) {
-        view.setHighValue((long) value);
+        view.setHighValue(value);
     }
 
     @ReactProp(name = "lowValue")
     public void setLowValue(RangeSlider view, double value) {
-        view.setLowValue((long) value);
+        view.setLowValue(value);
     }
 
     @ReactProp(name = "initialHighValue")
     public void setInitialHighValue(RangeSlider view, double value) {
-        view.setInitialHighValue((long) value);
+        view.setInitialHighValue(value);
     }
 
     @ReactProp(name = "initialLowValue")
     public void setInitialLowValue(RangeSlider view, double value) {
-        view.setInitialLowValue((long) value);
+        view.setInitialLowValue(value);
     }
 
     @ReactProp(name = "lineWidth")
@@ -134,6 +157,41 @@ public class RangeSliderViewManager extends SimpleViewManager<RangeSlider> {
         view.setTextFormat(format);
     }
 
+    @ReactProp(name = "ticksEnabled")
+    public void setTicksEnabled(RangeSlider view, boolean enabled) {
+        view.setTicksEnabled(enabled);
+    }
+
+    @ReactProp(name = "rulerLabelsEnabled")
+    public void setRulerLabelsEnabled(RangeSlider view, boolean enabled) {
+        view.setRulerLabelsEnabled(enabled);
+    }
+
+    @ReactProp(name = "rulerFontSize")
+    public void setRulerFontSize(RangeSlider view, float size) {
+        view.setRulerTextSize(size);
+    }
+
+    @ReactProp(name = "tickColor")
+    public void setTickColor(RangeSlider view, String hexColor) {
+        view.setTickColor(hexColor);
+    }
+
+    @ReactProp(name = "calendarStep")
+    public void setCalendarStep(RangeSlider view, String calendarStep) {
+        view.setCalendarStep(calendarStep);
+    }
+
+    @ReactProp(name = "timeZone")
+    public void setTimeZone(RangeSlider view, String timeZone) {
+        view.setTimeZone(timeZone);
+    }
+
+    @ReactProp(name = "countTextFormat")
+    public void setCountTextFormat(RangeSlider view, String format) {
+        view.setCountTextFormat(format);
+    }
+
     @ReactProp(name = "blankColor")
     public void setBlankColor(RangeSlider view, String hexColor) {
         view.setBlankColor(hexColor);
@@ -175,10 +233,13 @@ public class RangeSliderViewManager extends SimpleViewManager<RangeSlider> {
 
         slider.setOnValueChangeListener(new RangeSlider.OnValueChangeListener() {
             @Override
-            public void onValueChanged(long lowValue, long highValue, boolean fromUser) {
+            public void onValueChanged(long lowValue, long highValue, int inRangeCount, boolean fromUser) {
                 WritableMap event = Arguments.createMap();
-                event.putDouble("lowValue", lowValue);
-                event.putDouble("highValue", highValue);
+                event.putDouble("lowValue", slider.fromFixedPoint(lowValue));
+                event.putDouble("highValue", slider.fromFixedPoint(highValue));
+                if (inRangeCount >= 0) {
+                    event.putInt("inRangeCount", inRangeCount);
+                }
                 event.putBoolean("fromUser", fromUser);
 
                 reactContext.getJSModule(RCTEventEmitter.class).receiveEvent(slider.getId(), ON_VALUE_CHANGED_EVENT_NAME, event);
@@ -200,6 +261,35 @@ public class RangeSliderViewManager extends SimpleViewManager<RangeSlider> {
         return slider;
     }
 
+    @Override
+    public void onDropViewInstance(RangeSlider view) {
+        super.onDropViewInstance(view);
+        view.release();
+    }
+
+    @Nullable
+    @Override
+    public Map<String, Integer> getCommandsMap() {
+        return MapBuilder.of("setDataset", COMMAND_SET_DATASET);
+    }
+
+    @Override
+    public void receiveCommand(RangeSlider view, int commandId, @Nullable ReadableArray args) {
+        switch (commandId) {
+            case COMMAND_SET_DATASET:
+                ReadableArray values = args == null || args.size() == 0 || args.isNull(0) ? null : args.getArray(0);
+                long[] dataset = null;
+                if (values != null) {
+                    dataset = new long[values.size()];
+                    for (int i = 0; i < dataset.length; i++) {
+                        dataset[i] = view.toFixedPoint(values.getDouble(i));
+                    }
+                }
+                view.setDataset(dataset);
+                break;
+        }
+    }
+
     @Nullable
     @Override
     public Map<String, Object> getExportedCustomDirectEventTypeConstants() {
@@ -0,0 +1,304 @@
+package com.ashideas.rnrangeslider;
+
+import android.content.ComponentCallbacks2;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+
+/**
+ * Draws tick marks and ruler labels along the track.
+ *
+ * Ticks are placed at {@code origin + k * interval}, where interval is the smallest multiple of step
+ * (1, 2, 5, 10, 20, 50... steps) which keeps ticks at least {@code minTickSpacing} pixels apart.
+ * Every n-th tick is a major one and gets a label if ruler labels are enabled.
+ *
+ * Tick positions are cached as a single float array (relative to the first visible tick) and drawn with one
+ * {@link Canvas#drawLines(float[], int, int, Paint)} call. They are recomputed only if the level of detail
+ * or the set of visible ticks changes, labels are formatted only for ticks which became visible.
+ */
+class TickRuler implements CacheRegistry.Cache {
+
+    private static final int[] MANTISSAS = {1, 2, 5};
+
+    interface LabelFormatter {
+        String format(long value);
+    }
+
+    private final LabelFormatter formatter;
+    private final Paint tickPaint;
+    private final Paint labelPaint;
+
+    private final float minTickSpacing;
+    private final float minLabelSpacing;
+    private final float minorTickLength;
+    private final float majorTickLength;
+    private final float labelGap;
+
+    private boolean labelsEnabled;
+
+    // Level of detail, depends on origin, step, window span and width
+    private long cachedOrigin;
+    private long cachedStep;
+    private long cachedSpan = -1;
+    private float cachedWidth;
+    private double pxPerValue;
+    private long minorInterval;
+    private int majorEvery;
+
+    // Visible ticks
+    private long firstIndex;
+    private long lastIndex = -1;
+    private boolean visibleValid;
+    private float[] lines = new float[0];
+    private int lineCount;
+
+    // Labels of visible major ticks
+    private long firstLabelIndex;
+    private String[] labels = new String[0];
+    private float[] labelX = new float[0];
+    private int labelCount;
+
+    TickRuler(LabelFormatter formatter, float minTickSpacing, float minLabelSpacing,
+              float minorTickLength, float majorTickLength, float labelGap) {
+        this.formatter = formatter;
+        this.minTickSpacing = minTickSpacing;
+        this.minLabelSpacing = minLabelSpacing;
+        this.minorTickLength = minorTickLength;
+        this.majorTickLength = majorTickLength;
+        this.labelGap = labelGap;
+
+        tickPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        tickPaint.setStyle(Paint.Style.STROKE);
+        labelPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        labelPaint.setTextAlign(Paint.Align.CENTER);
+    }
+
+    void setColor(int color) {
+        tickPaint.setColor(color);
+        labelPaint.setColor(color);
+    }
+
+    void setTickWidth(float width) {
+        tickPaint.setStrokeWidth(width);
+    }
+
+    void setTextSize(float textSize) {
+        labelPaint.setTextSize(textSize);
+        invalidate();
+    }
+
+    void setLabelsEnabled(boolean labelsEnabled) {
+        this.labelsEnabled = labelsEnabled;
+        invalidate();
+    }
+
+    /**
+     * @return height of label text, 0 if labels are disabled
+     */
+    float getLabelHeight() {
+        return labelsEnabled ? labelPaint.descent() - labelPaint.ascent() : 0;
+    }
+
+    /**
+     * @return the closest distance from the track to the top of labels, so they don't touch major ticks
+     */
+    float getLabelOffset() {
+        return majorTickLength / 2 + labelGap;
+    }
+
+    float getLabelGap() {
+        return labelGap;
+    }
+
+    /**
+     * Drops everything, should be called when anything affecting label text changes.
+     */
+    void invalidate() {
+        cachedSpan = -1;
+        visibleValid = false;
+        labelCount = 0;
+    }
+
+    /**
+     * @param origin value of the first tick (minimum value of the slider)
+     * @param windowMin value at {@code left}
+     * @param windowMax value at {@code left + width}
+     * @param left x coordinate of windowMin
+     * @param cy y coordinate of the track
+     * @param labelTop y coordinate of the top of labels, at least {@code cy + getLabelOffset()}
+     */
+    void draw(Canvas canvas, long origin, long windowMin, long windowMax, long step, float left, float width, float cy, float labelTop) {
+        long span = windowMax - windowMin;
+        if (span <= 0 || step <= 0 || width <= 0) {
+            return;
+        }
+        if (origin != cachedOrigin || step != cachedStep || span != cachedSpan || width != cachedWidth) {
+            updateLevelOfDetail(origin, windowMin, windowMax, step, width);
+        }
+
+        long first = ceilDiv(windowMin - origin, minorInterval);
+        long last = floorDiv(windowMax - origin, minorInterval);
+        if (!visibleValid || first != firstIndex || last != lastIndex) {
+            updateVisibleTicks(first, last);
+        }
+        if (lineCount == 0) {
+            return;
+        }
+
+        canvas.save();
+        canvas.translate(left + (float) ((origin + firstIndex * minorInterval - windowMin) * pxPerValue), cy);
+        canvas.drawLines(lines, 0, lineCount * 4, tickPaint);
+        if (labelsEnabled) {
+            float y = labelTop - cy - labelPaint.ascent();
+            for (int i = 0; i < labelCount; i++) {
+                canvas.drawText(labels[i], labelX[i], y, labelPaint);
+            }
+        }
+        canvas.restore();
+    }
+
+    @Override
+    public String getName() {
+        return "ticks";
+    }
+
+    /**
+     * @return number of cached ticks
+     */
+    @Override
+    public int size() {
+        return lineCount;
+    }
+
+    /**
+     * Ticks are cheap to compute again, so they are kept until memory gets critical.
+     */
+    @Override
+    public void trim(int level) {
+        if (level >= ComponentCallbacks2.TRIM_MEMORY_RUNNING_CRITICAL) {
+            lines = new float[0];
+            lineCount = 0;
+            labels = new String[0];
+            labelX = new float[0];
+            invalidate();
+        }
+    }
+
+    private void updateLevelOfDetail(long origin, long windowMin, long windowMax, long step, float width) {
+        cachedOrigin = origin;
+        cachedStep = step;
+        cachedSpan = windowMax - windowMin;
+        cachedWidth = width;
+        pxPerValue = width / (double) cachedSpan;
+
+        long minorMultiplier = chooseMultiplier(1, step, minTickSpacing);
+        minorInterval = minorMultiplier * step;
+
+        float labelSpacing = minLabelSpacing;
+        if (labelsEnabled) {
+            float widestLabel = Math.max(labelPaint.measureText(formatter.format(windowMin)),
+                    labelPaint.measureText(formatter.format(windowMax)));
+            labelSpacing = Math.max(labelSpacing, widestLabel + labelGap * 2);
+        }
+        majorEvery = (int) Math.min(Integer.MAX_VALUE, chooseMultiplier(minorMultiplier, step, labelSpacing) / minorMultiplier);
+
+        visibleValid = false;
+        labelCount = 0;
+    }
+
+    /**
+     * Finds the smallest multiplier from 1, 2, 5, 10, 20, 50... sequence which is a multiple of {@code divisor}
+     * and makes ticks at least {@code minSpacing} pixels apart.
+     */
+    private long chooseMultiplier(long divisor, long step, float minSpacing) {
+        long maxMultiplier = Math.max(1, cachedSpan / step);
+        long decade = 1;
+        while (true) {
+            for (int mantissa : MANTISSAS) {
+                long multiplier = mantissa * decade;
+                if (multiplier >= divisor && multiplier % divisor == 0 &&
+                        (multiplier * step * pxPerValue >= minSpacing || multiplier >= maxMultiplier)) {
+                    return multiplier;
+                }
+            }
+            decade *= 10;
+        }
+    }
+
+    private void updateVisibleTicks(long first, long last) {
+        int count = (int) Math.max(0, last - first + 1);
+        if (lines.length < count * 4) {
+            lines = new float[count * 4];
+        }
+
+        float interval = (float) (minorInterval * pxPerValue);
+        for (int i = 0; i < count; i++) {
+            float halfLength = (first + i) % majorEvery == 0 ? majorTickLength / 2 : minorTickLength / 2;
+            float x = i * interval;
+            lines[i * 4] = x;
+            lines[i * 4 + 1] = -halfLength;
+            lines[i * 4 + 2] = x;
+            lines[i * 4 + 3] = halfLength;
+        }
+        lineCount = count;
+
+        if (labelsEnabled) {
+            updateLabels(first, last, interval);
+        }
+
+        firstIndex = first;
+        lastIndex = last;
+        visibleValid = true;
+    }
+
+    private void updateLabels(long first, long last, float interval) {
+        long firstLabel = ceilDiv(first, majorEvery);
+        long lastLabel = floorDiv(last, majorEvery);
+        int count = (int) Math.max(0, lastLabel - firstLabel + 1);
+
+        String[] newLabels = labels.length >= count ? labels : new String[count];
+        if (labelX.length < count) {
+            labelX = new float[count];
+        }
+
+        // Labels which stay visible are reused, shift them into their new slots first
+        long shift = firstLabel - firstLabelIndex;
+        if (shift > 0) {
+            for (int i = 0; i < count; i++) {
+                long old = i + shift;
+                newLabels[i] = old < labelCount ? labels[(int) old] : null;
+            }
+        } else {
+            for (int i = count - 1; i >= 0; i--) {
+                long old = i + shift;
+                newLabels[i] = old >= 0 && old < labelCount ? labels[(int) old] : null;
+            }
+        }
+
+        for (int i = 0; i < count; i++) {
+            long tickIndex = (firstLabel + i) * majorEvery;
+            if (newLabels[i] == null) {
+                newLabels[i] = formatter.format(cachedOrigin + tickIndex * minorInterval);
+            }
+            labelX[i] = (tickIndex - first) * interval;
+        }
+        for (int i = count; i < newLabels.length; i++) {
+            newLabels[i] = null;
+        }
+
+        labels = newLabels;
+        labelCount = count;
+        firstLabelIndex = firstLabel;
+    }
+
+    private static long floorDiv(long x, long y) {
+        long quotient = x / y;
+        if ((x % y != 0) && ((x ^ y) < 0)) {
+            quotient--;
+        }
+        return quotient;
+    }
+
+    private static long ceilDiv(long x, long y) {
+        return -floorDiv(-x, y);
+    }
+}
@@ -0,0 +1,141 @@
+package com.ashideas.rnrangeslider;
+
+/**
+ * Predicts the x coordinate of a finger a short time ahead with an alpha-beta filter
+ * (a steady state Kalman filter for position and velocity) over touch samples.
+ *
+ * Every prediction is remembered and compared with the real position when samples
+ * for its target time arrive, so the prediction error can be reported.
+ */
+class TouchPredictor {
+
+    private static final float ALPHA = 0.6f;
+    private static final float BETA = 0.2f;
+    private static final int MAX_PENDING = 16;
+
+    private final long horizonMillis;
+
+    private boolean hasSample;
+    private long lastTime;
+    private float lastX;
+    private float x;
+    private float velocity;
+
+    // Ring buffer of predictions which are not verified yet
+    private final long[] pendingTimes = new long[MAX_PENDING];
+    private final float[] pendingX = new float[MAX_PENDING];
+    private int pendingStart;
+    private int pendingCount;
+
+    private double errorSum;
+    private float maxError;
+    private int errorCount;
+
+    TouchPredictor(long horizonMillis) {
+        this.horizonMillis = horizonMillis;
+    }
+
+    /**
+     * Starts a new gesture, accumulated error is kept.
+     */
+    void reset() {
+        hasSample = false;
+        velocity = 0;
+        pendingCount = 0;
+    }
+
+    void addSample(long time, float sampleX) {
+        if (!hasSample) {
+            hasSample = true;
+            x = sampleX;
+        } else if (time > lastTime) {
+            verifyPredictions(time, sampleX);
+            float dt = time - lastTime;
+            float predicted = x + velocity * dt;
+            float residual = sampleX - predicted;
+            x = predicted + ALPHA * residual;
+            velocity += BETA / dt * residual;
+        } else {
+            return;
+        }
+        lastTime = time;
+        lastX = sampleX;
+    }
+
+    /**
+     * Remembers the current prediction so it's verified by later samples.
+     * Should be called once per event, after all its samples are added.
+     */
+    void commitPrediction() {
+        if (!hasSample) {
+            return;
+        }
+        if (pendingCount == MAX_PENDING) {
+            pendingStart = (pendingStart + 1) % MAX_PENDING;
+            pendingCount--;
+        }
+        int index = (pendingStart + pendingCount) % MAX_PENDING;
+        pendingTimes[index] = lastTime + horizonMillis;
+        pendingX[index] = getPredictedX();
+        pendingCount++;
+    }
+
+    boolean hasPrediction() {
+        return hasSample;
+    }
+
+    /**
+     * @return predicted x at {@code horizonMillis} after the last sample
+     */
+    float getPredictedX() {
+        return x + velocity * horizonMillis;
+    }
+
+    /**
+     * @return predicted x minus the last real x
+     */
+    float getPredictedOffset() {
+        return hasSample ? getPredictedX() - lastX : 0;
+    }
+
+    /**
+     * @return mean absolute prediction error in pixels, 0 if nothing was verified yet
+     */
+    float getMeanError() {
+        return errorCount == 0 ? 0 : (float) (errorSum / errorCount);
+    }
+
+    float getMaxError() {
+        return maxError;
+    }
+
+    int getVerifiedCount() {
+        return errorCount;
+    }
+
+    void resetError() {
+        errorSum = 0;
+        maxError = 0;
+        errorCount = 0;
+    }
+
+    private void verifyPredictions(long time, float sampleX) {
+        while (pendingCount > 0) {
+            long target = pendingTimes[pendingStart];
+            if (target > time) {
+                return;
+            }
+            if (target >= lastTime) {
+                // Real position at target time, interpolated between the last two samples
+                float fraction = (target - lastTime) / (float) (time - lastTime);
+                float real = lastX + (sampleX - lastX) * fraction;
+                float error = Math.abs(pendingX[pendingStart] - real);
+                errorSum += error;
+                maxError = Math.max(maxError, error);
+                errorCount++;
+            }
+            pendingStart = (pendingStart + 1) % MAX_PENDING;
+            pendingCount--;
+        }
+    }
+}
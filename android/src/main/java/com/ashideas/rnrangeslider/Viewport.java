@@ -0,0 +1,117 @@
+package com.ashideas.rnrangeslider;
+
+/**
+ * Maps values of the visible window of [min, max] to x coordinates of the track and back.
+ * Scale factors are cached and recomputed only when bounds, track or window change.
+ */
+class Viewport {
+
+    private long min;
+    private long max;
+    private float left;
+    private float width;
+
+    private long windowMin;
+    private long windowMax;
+    private double pxPerValue;
+    private double valuePerPx;
+
+    /**
+     * Sets bounds of values and the track. Window is reset to whole [min, max] range if bounds changed.
+     *
+     * @param left x coordinate of the start of the track
+     * @param width width of the track
+     */
+    void setBounds(long min, long max, float left, float width) {
+        if (min == this.min && max == this.max && left == this.left && width == this.width) {
+            return;
+        }
+        if (min != this.min || max != this.max) {
+            this.min = min;
+            this.max = max;
+            windowMin = min;
+            windowMax = max;
+        }
+        this.left = left;
+        this.width = width;
+        updateScale();
+    }
+
+    long getWindowMin() {
+        return windowMin;
+    }
+
+    long getWindowMax() {
+        return windowMax;
+    }
+
+    boolean isZoomed() {
+        return windowMin > min || windowMax < max;
+    }
+
+    void reset() {
+        windowMin = min;
+        windowMax = max;
+        updateScale();
+    }
+
+    /**
+     * @return value at given x coordinate, clamped to the window
+     */
+    long valueAt(float x) {
+        if (x <= left) {
+            return windowMin;
+        } else if (x >= left + width) {
+            return windowMax;
+        }
+        return windowMin + (long) ((x - left) * valuePerPx);
+    }
+
+    float positionOf(long value) {
+        return left + (float) ((value - windowMin) * pxPerValue);
+    }
+
+    /**
+     * Zooms keeping the value at focusX in place.
+     *
+     * @param factor values above 1 zoom in
+     * @param minSpan the smallest allowed window span
+     * @return true if the window was changed
+     */
+    boolean zoom(float focusX, double factor, long minSpan) {
+        long span = windowMax - windowMin;
+        long newSpan = Utils.clamp((long) (span / factor), Math.min(minSpan, max - min), max - min);
+        if (newSpan == span) {
+            return false;
+        }
+        double focusFraction = Math.max(0, Math.min(1, (focusX - left) / width));
+        long focusValue = windowMin + (long) (span * focusFraction);
+        long newMin = focusValue - (long) (newSpan * focusFraction);
+        newMin = Utils.clamp(newMin, min, max - newSpan);
+        windowMin = newMin;
+        windowMax = newMin + newSpan;
+        updateScale();
+        return true;
+    }
+
+    /**
+     * Moves the window, keeping it within bounds.
+     *
+     * @return the applied shift
+     */
+    long pan(long delta) {
+        long newMin = Utils.clamp(windowMin + delta, min, max - (windowMax - windowMin));
+        long applied = newMin - windowMin;
+        if (applied != 0) {
+            windowMax += applied;
+            windowMin = newMin;
+        }
+        return applied;
+    }
+
+    private void updateScale() {
+        long span = windowMax - windowMin;
+        pxPerValue = span == 0 ? 0 : width / (double) span;
+        valuePerPx = width == 0 ? 0 : span / (double) width;
+    }
+}
@@ -4,11 +4,17 @@ declare module "rn-range-slider" {
   export interface RangeSliderProps {
     rangeEnabled?: boolean;
     disabled?: boolean;
+    multiTouchEnabled?: boolean;
+    viewportEnabled?: boolean;
+    predictiveTouchEnabled?: boolean;
     valueType?: "number" | "time";
     gravity?: "top" | "bottom" | "center";
     min?: number | Date;
     max?: number | Date;
     step?: number | Date;
+    calendarStep?: "hour" | "day" | "week" | "month" | "year";
+    timeZone?: string;
+    precision?: number;
     initialLowValue?: number | Date;
     initialHighValue?: number | Date;
     lineWidth?: number;
@@ -22,6 +28,7 @@ declare module "rn-range-slider" {
     labelPadding?: number;
     labelBorderRadius?: number;
     textFormat?: string;
+    countTextFormat?: string;
     blankColor?: string;
     selectionColor?: string;
     thumbColor?: string;
@@ -29,14 +36,22 @@ declare module "rn-range-slider" {
     labelTextColor?: string;
     labelBackgroundColor?: string;
     labelBorderColor?: string;
+    ticksEnabled?: boolean;
+    rulerLabelsEnabled?: boolean;
+    rulerFontSize?: number;
+    tickColor?: string;
     onTouchStart?: () => void;
     onTouchEnd?: () => void;
     onValueChanged?:
-      | ((lowValue: number, highValue: number, fromUser: boolean) => void)
-      | ((lowValue: Date, highValue: Date, fromUser: boolean) => void);
+      | ((lowValue: number, highValue: number, fromUser: boolean, inRangeCount?: number) => void)
+      | ((lowValue: Date, highValue: Date, fromUser: boolean, inRangeCount?: number) => void);
   }
 
   export default class RangeSlider extends React.PureComponent<
     RangeSliderProps
-  > {}
+  > {
+    setLowValue(value: number | Date): void;
+    setHighValue(value: number | Date): void;
+    setDataset(values: Array<number | Date> | null): void;
+  }
 }
@@ -1,5 +1,5 @@
 import React, {PureComponent} from 'react';
-import {requireNativeComponent} from 'react-native';
+import {findNodeHandle, Platform, requireNativeComponent, UIManager} from 'react-native';
 import PropTypes from 'prop-types'
 
 const noop = () => {}
@@ -12,12 +12,12 @@ class RangeSlider extends PureComponent {
 
     _handleValueChange = ({nativeEvent}) => {
         const { onValueChanged, valueType } = this.props
-        let { lowValue, highValue, fromUser } = nativeEvent;
+        let { lowValue, highValue, fromUser, inRangeCount } = nativeEvent;
         if (valueType === 'time') {
             lowValue = new Date(lowValue);
             highValue = new Date(highValue);
         }
-        onValueChanged && onValueChanged(lowValue, highValue, fromUser);
+        onValueChanged && onValueChanged(lowValue, highValue, fromUser, inRangeCount);
     }
 
     _handleTouchStart = ({nativeEvent}) => {
@@ -71,6 +71,18 @@ class RangeSlider extends PureComponent {
         }
         this._slider.setNativeProps({ lowValue: value });
     }
+
+    setDataset = values => {
+        if (Platform.OS !== 'android') {
+            return;
+        }
+        const { valueType } = this.props;
+        if (values && valueType === 'time') {
+            values = values.map(dateToTimeStamp);
+        }
+        const config = UIManager.getViewManagerConfig ? UIManager.getViewManagerConfig('RangeSlider') : UIManager.RangeSlider;
+        UIManager.dispatchViewManagerCommand(findNodeHandle(this._slider), config.Commands.setDataset, [values || null]);
+    }
 }
 
 const numberOrDate = PropTypes.oneOfType([
@@ -81,11 +93,17 @@ const numberOrDate = PropTypes.oneOfType([
 RangeSlider.propTypes = {
     rangeEnabled: PropTypes.bool,
     disabled: PropTypes.bool,
+    multiTouchEnabled: PropTypes.bool,
+    viewportEnabled: PropTypes.bool,
+    predictiveTouchEnabled: PropTypes.bool,
     valueType: PropTypes.oneOf(['number', 'time']),
     gravity: PropTypes.oneOf(['top', 'bottom', 'center']),
     min: numberOrDate,
     max: numberOrDate,
     step: numberOrDate,
+    calendarStep: PropTypes.oneOf(['hour', 'day', 'week', 'month', 'year']),
+    timeZone: PropTypes.string,
+    precision: PropTypes.number,
     initialLowValue: numberOrDate,
     initialHighValue: numberOrDate,
     lineWidth: PropTypes.number,
@@ -99,6 +117,7 @@ RangeSlider.propTypes = {
     labelPadding: PropTypes.number,
     labelBorderRadius: PropTypes.number,
     textFormat: PropTypes.string,
+    countTextFormat: PropTypes.string,
     blankColor: PropTypes.string,
     selectionColor: PropTypes.string,
     thumbColor: PropTypes.string,
@@ -106,6 +125,10 @@ RangeSlider.propTypes = {
     labelTextColor: PropTypes.string,
     labelBackgroundColor: PropTypes.string,
     labelBorderColor: PropTypes.string,
+    ticksEnabled: PropTypes.bool,
+    rulerLabelsEnabled: PropTypes.bool,
+    rulerFontSize: PropTypes.number,
+    tickColor: PropTypes.string,
     onTouchStart: PropTypes.func,
     onTouchEnd: PropTypes.func,
     onValueChanged: PropTypes.func,
@@ -114,11 +137,15 @@ RangeSlider.propTypes = {
 RangeSlider.defaultProps = {
     rangeEnabled: true,
     disabled: false,
+    multiTouchEnabled: false,
+    viewportEnabled: false,
+    predictiveTouchEnabled: false,
     valueType: 'number',
     gravity: 'top',
     min: 0,
     max: 100,
     step: 1,
+    precision: 0,
     lineWidth: 4,
     thumbRadius: 10,
     thumbBorderWidth: 2,
@@ -137,6 +164,10 @@ RangeSlider.defaultProps = {
     labelTextColor: '#ffffff',
     labelBackgroundColor: '#ff60ad',
     labelBorderColor: '#d13e85',
+    ticksEnabled: false,
+    rulerLabelsEnabled: false,
+    rulerFontSize: 10,
+    tickColor: '#cccccc',
     onTouchStart: noop,
     onTouchEnd: noop,
     onValueChanged: noop,